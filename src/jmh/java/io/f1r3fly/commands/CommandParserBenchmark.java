@@ -0,0 +1,83 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.errors.CommandSyntaxError;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages/sec through the routing pre-check and {@link CommandParser} for a channel where
+ * {@code commandPercent} of the traffic is bot commands and the rest is ordinary chatter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CommandParserBenchmark {
+    private static final int MESSAGES = 1024;
+
+    private static final String[] CHATTER = {
+            "hey, is the node up?",
+            "lgtm",
+            "I think the last deploy is still waiting for finalization, give it a minute",
+            "!",
+            "anyone know why propose keeps failing with NoNewDeploys?",
+            "https://github.com/F1R3FLY-io/f1r3fly",
+    };
+
+    private static final String[] COMMANDS = {
+            "!help",
+            "!more",
+            "!eval 1 + 1",
+            "!eval new stdout(`rho:io:stdout`) in { stdout!(\"Hello, world!\") }",
+            "!deploy new x in {\n  x!(42) |\n  for (@v <- x) { Nil }\n}",
+            "!deploy -f contract.rho",
+            "!eval -l metta (+ 1 2)",
+            "!deploy -f registry.rho -l rholang",
+            "!deploy -l cobol Nil",
+    };
+
+    @Param({"10", "50", "100"})
+    private int commandPercent;
+
+    private List<String> messages;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        messages = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            String[] pool = i * 100 < commandPercent * MESSAGES ? COMMANDS : CHATTER;
+            messages.add(pool[random.nextInt(pool.length)]);
+        }
+        Collections.shuffle(messages, random);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void parse(Blackhole blackhole) {
+        for (String message : messages) {
+            if (!CommandParser.isCommand(message)) {
+                blackhole.consume(message);
+                continue;
+            }
+            try {
+                blackhole.consume(CommandParser.parse(message));
+            } catch (CommandSyntaxError e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.f1r3fly.grcp;
+
+import casper.CasperMessage;
+import com.google.protobuf.ByteString;
+import com.rfksystems.blake2b.Blake2b;
+import com.rfksystems.blake2b.security.Blake2bProvider;
+import fr.acinq.secp256k1.Hex;
+import fr.acinq.secp256k1.Secp256k1;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs/sec of the original per-call signing path against {@link DeploySigner}.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DeploySignerBenchmark {
+    private static final String SIGNING_KEY = "b18e1d0045995ec3d010c387ccfeb984d783af8fbb0f40fa7db126d889f6dadd";
+
+    @Param({"64"})
+    private int batchSize;
+
+    private byte[] signingKey;
+    private DeploySigner signer;
+    private CasperMessage.DeployDataProto deploy;
+    private List<CasperMessage.DeployDataProto> batch;
+
+    @Setup
+    public void setUp() {
+        Security.addProvider(new Blake2bProvider());
+        signingKey = Hex.decode(SIGNING_KEY);
+        signer = new DeploySigner(signingKey);
+        deploy = CasperMessage.DeployDataProto.newBuilder()
+                .setTerm("new stdout(`rho:io:stdout`) in { stdout!(\"Hello, world!\") }")
+                .setTimestamp(0)
+                .setPhloPrice(1)
+                .setPhloLimit(50_000L)
+                .setShardId("root")
+                .build();
+        batch = Collections.nCopies(batchSize, deploy);
+    }
+
+    @Benchmark
+    public CasperMessage.DeployDataProto legacySign() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance(Blake2b.BLAKE2_B_256);
+        Secp256k1 secp256k1 = Secp256k1.get();
+
+        CasperMessage.DeployDataProto signed = CasperMessage.DeployDataProto.newBuilder()
+                .setTerm(deploy.getTerm())
+                .setTimestamp(deploy.getTimestamp())
+                .setPhloPrice(deploy.getPhloPrice())
+                .setPhloLimit(deploy.getPhloLimit())
+                .setValidAfterBlockNumber(deploy.getValidAfterBlockNumber())
+                .setShardId(deploy.getShardId())
+                .build();
+
+        digest.update(signed.toByteArray());
+        byte[] hashed = digest.digest();
+        byte[] signature = secp256k1.compact2der(secp256k1.sign(hashed, signingKey));
+        byte[] pubKey = secp256k1.pubkeyCreate(signingKey);
+
+        return signed.toBuilder()
+                .setSigAlgorithm("secp256k1")
+                .setSig(ByteString.copyFrom(signature))
+                .setDeployer(ByteString.copyFrom(pubKey))
+                .build();
+    }
+
+    @Benchmark
+    public CasperMessage.DeployDataProto sign() {
+        return signer.sign(deploy);
+    }
+
+    @Benchmark
+    public List<CasperMessage.DeployDataProto> signAll() {
+        return batch.stream().map(signer::sign).toList();
+    }
+}
@@ -0,0 +1,77 @@
+package io.f1r3fly.grcp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of diffing a synthetic REPL output of {@code outputBytes} characters, either against an identical
+ * previous output or against one that is missing the last {@code newEntries} storage entries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageDiffBenchmark {
+    private static final String HEADER = "Deployment cost: CostAccount(42,Cost(1234))\n";
+
+    @Param({"1024", "65536", "1048576", "16777216", "104857600"})
+    private int outputBytes;
+
+    @Param({"16"})
+    private int newEntries;
+
+    private String previous;
+    private String current;
+    private StorageDiff unchanged;
+    private StorageDiff grown;
+    private boolean grownToggle;
+
+    @Setup
+    public void setUp() {
+        StringBuilder storage = new StringBuilder(outputBytes + 64);
+        storage.append(HEADER).append(StorageDiff.STORAGE_MARKER).append('\n');
+        int entry = 0;
+        while (storage.length() < outputBytes) {
+            if (entry > 0) {
+                storage.append(" |\n");
+            }
+            storage.append("@{\"entry-").append(entry).append("\"}!(").append(entry * 31L).append(", \"value-")
+                    .append(Integer.toHexString(entry)).append("\")");
+            entry++;
+        }
+        // the previous output is the same storage without its last newEntries entries
+        int cut = storage.length();
+        for (int i = 0; i < newEntries && cut > 0; i++) {
+            cut = storage.lastIndexOf(" |\n", cut - 1);
+        }
+        int previousLength = Math.max(cut, HEADER.length() + StorageDiff.STORAGE_MARKER.length());
+
+        current = storage.toString();
+        previous = current.substring(0, previousLength);
+
+        unchanged = new StorageDiff();
+        unchanged.apply(current);
+        grown = new StorageDiff();
+    }
+
+    @Benchmark
+    public EvalResult unchanged() {
+        return unchanged.apply(current);
+    }
+
+    /**
+     * Alternates between the previous and the current output, so every other call reports {@code newEntries} entries.
+     */
+    @Benchmark
+    public EvalResult grown() {
+        grownToggle = !grownToggle;
+        return grown.apply(grownToggle ? previous : current);
+    }
+}
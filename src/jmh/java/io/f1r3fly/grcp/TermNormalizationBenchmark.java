@@ -0,0 +1,63 @@
+package io.f1r3fly.grcp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a Rholang term from a Discord message into the single-line term that is deployed.
+ * {@code replaceAll} is what the deploy and eval commands used to do; {@link TermNormalizer} replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TermNormalizationBenchmark {
+    private static final String CONTRACT = """
+            new helloWorld, stdout(`rho:io:stdout`), stdoutAck(`rho:io:stdoutAck`) in {
+            \tcontract helloWorld(@name) = {
+            \t\tnew ack in {
+            \t\t\t// say hello, then wait for the ack
+            \t\t\tstdoutAck!("Hello, ", *ack) |
+            \t\t\tfor (_ <- ack) {
+            \t\t\t\tstdout!(name)
+            \t\t\t}
+            \t\t}
+            \t} |
+            \thelloWorld!("Joe")
+            }
+            """;
+
+    @Param({"1", "16", "256"})
+    private int contracts;
+
+    private String term;
+    private String canonical;
+
+    @Setup
+    public void setUp() {
+        term = CONTRACT.repeat(contracts);
+        canonical = TermNormalizer.normalize(term).term();
+    }
+
+    @Benchmark
+    public String replaceAll() {
+        return term.replaceAll("[\\n\\r\\t]", " ");
+    }
+
+    @Benchmark
+    public NormalizedTerm normalize() {
+        return TermNormalizer.normalize(term);
+    }
+
+    @Benchmark
+    public NormalizedTerm normalizeCanonical() {
+        return TermNormalizer.normalize(canonical);
+    }
+}
@@ -0,0 +1,213 @@
+package io.f1r3fly.loadtest;
+
+import casper.CasperMessage;
+import casper.DeployServiceCommon;
+import casper.ProposeServiceCommon;
+import casper.v1.DeployServiceGrpc;
+import casper.v1.DeployServiceV1;
+import casper.v1.ProposeServiceGrpc;
+import casper.v1.ProposeServiceV1;
+import com.google.protobuf.ByteString;
+import fr.acinq.secp256k1.Hex;
+import io.f1r3fly.grcp.DaemonThreadFactory;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import repl.ReplGrpc;
+import repl.ReplOuterClass;
+import servicemodelapi.ServiceErrorOuterClass;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A shard reduced to what the bot talks to: DeployService, ProposeService and Repl served over grpc-java's
+ * in-process transport. All servers started by one instance share a single chain, so one name can act as the
+ * validator and another as an observer, but like real nodes each server keeps a REPL tuplespace of its own, holding
+ * the last {@link #REPL_ENTRIES} entries left by its evals. Deploys wait in a mempool until the next propose puts them into a block,
+ * which reports finalized {@link FakeNodeConfig#finalizationDelay()} after it was proposed.
+ */
+public class FakeNode {
+    private static final int REPL_ENTRIES = 256;
+
+    private final FakeNodeConfig config;
+    private final ScheduledExecutorService responder =
+            Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), new DaemonThreadFactory("fake-node-"));
+    private final List<Server> servers = new ArrayList<>();
+    private final Map<ByteString, String> blockOfDeploy = new ConcurrentHashMap<>();
+    private final Map<String, Long> blockProposedAt = new ConcurrentHashMap<>();
+    private final String storageFiller;
+
+    private final Object mempoolLock = new Object();
+    private List<ByteString> mempool = new ArrayList<>();
+
+    public FakeNode(FakeNodeConfig config) {
+        this.config = config;
+        this.storageFiller = storageFiller(config.replOutputBytes());
+    }
+
+    /**
+     * Starts one in-process server per name; connect to them with {@code inprocess:<name>} node addresses.
+     */
+    public FakeNode start(String... names) throws IOException {
+        for (String name : names) {
+            servers.add(InProcessServerBuilder.forName(name)
+                    .addService(new DeployService())
+                    .addService(new ProposeService())
+                    .addService(new Repl())
+                    .build()
+                    .start());
+        }
+        return this;
+    }
+
+    public void shutdown() {
+        servers.forEach(Server::shutdownNow);
+        responder.shutdownNow();
+    }
+
+    public int blocks() {
+        return blockProposedAt.size();
+    }
+
+    private <T> void respond(StreamObserver<T> observer, Duration meanLatency, Supplier<T> response) {
+        long mean = meanLatency.toNanos();
+        long delay = mean / 2 + ThreadLocalRandom.current().nextLong(mean + 1);
+        responder.schedule(() -> {
+            observer.onNext(response.get());
+            observer.onCompleted();
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean injectFailure() {
+        return config.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.errorRate();
+    }
+
+    private static ServiceErrorOuterClass.ServiceError error(String message) {
+        return ServiceErrorOuterClass.ServiceError.newBuilder().addMessages(message).build();
+    }
+
+    private String proposeBlock() {
+        List<ByteString> deploys;
+        synchronized (mempoolLock) {
+            if (mempool.isEmpty()) {
+                return null;
+            }
+            deploys = mempool;
+            mempool = new ArrayList<>();
+        }
+        byte[] hash = new byte[32];
+        ThreadLocalRandom.current().nextBytes(hash);
+        String blockHash = Hex.encode(hash);
+        for (ByteString deployId : deploys) {
+            blockOfDeploy.put(deployId, blockHash);
+        }
+        blockProposedAt.put(blockHash, System.nanoTime());
+        return blockHash;
+    }
+
+    private boolean isBlockFinalized(String blockHash) {
+        Long proposedAt = blockProposedAt.get(blockHash);
+        return proposedAt != null && System.nanoTime() - proposedAt >= config.finalizationDelay().toNanos();
+    }
+
+    private static String storageFiller(int bytes) {
+        StringBuilder filler = new StringBuilder(bytes + 64);
+        for (int entry = 0; filler.length() < bytes; entry++) {
+            if (entry > 0) {
+                filler.append(" |\n");
+            }
+            filler.append(" @{\"filler-").append(entry).append("\"}!(").append(entry).append(')');
+        }
+        return filler.toString();
+    }
+
+    private class DeployService extends DeployServiceGrpc.DeployServiceImplBase {
+        @Override
+        public void doDeploy(CasperMessage.DeployDataProto deploy, StreamObserver<DeployServiceV1.DeployResponse> observer) {
+            respond(observer, config.latency(), () -> {
+                if (injectFailure()) {
+                    return DeployServiceV1.DeployResponse.newBuilder().setError(error("Fake node rejected the deploy")).build();
+                }
+                synchronized (mempoolLock) {
+                    mempool.add(deploy.getSig());
+                }
+                return DeployServiceV1.DeployResponse.newBuilder()
+                        .setResult("Success!\nDeployId is: " + Hex.encode(deploy.getSig().toByteArray()))
+                        .build();
+            });
+        }
+
+        @Override
+        public void findDeploy(DeployServiceCommon.FindDeployQuery query, StreamObserver<DeployServiceV1.FindDeployResponse> observer) {
+            respond(observer, config.latency(), () -> {
+                String blockHash = blockOfDeploy.get(query.getDeployId());
+                if (blockHash == null || injectFailure()) {
+                    return DeployServiceV1.FindDeployResponse.newBuilder()
+                            .setError(error("Couldn't find block containing deploy with id: " + Hex.encode(query.getDeployId().toByteArray())))
+                            .build();
+                }
+                return DeployServiceV1.FindDeployResponse.newBuilder()
+                        .setBlockInfo(DeployServiceCommon.LightBlockInfo.newBuilder().setBlockHash(blockHash).build())
+                        .build();
+            });
+        }
+
+        @Override
+        public void isFinalized(DeployServiceCommon.IsFinalizedQuery query, StreamObserver<DeployServiceV1.IsFinalizedResponse> observer) {
+            respond(observer, config.latency(), () -> injectFailure()
+                    ? DeployServiceV1.IsFinalizedResponse.newBuilder().setError(error("Fake node failed to check finalization")).build()
+                    : DeployServiceV1.IsFinalizedResponse.newBuilder().setIsFinalized(isBlockFinalized(query.getHash())).build());
+        }
+    }
+
+    private class ProposeService extends ProposeServiceGrpc.ProposeServiceImplBase {
+        @Override
+        public void propose(ProposeServiceCommon.ProposeQuery query, StreamObserver<ProposeServiceV1.ProposeResponse> observer) {
+            respond(observer, config.proposeLatency(), () -> {
+                if (injectFailure()) {
+                    return ProposeServiceV1.ProposeResponse.newBuilder().setError(error("Fake node failed to propose")).build();
+                }
+                String blockHash = proposeBlock();
+                return blockHash == null
+                        ? ProposeServiceV1.ProposeResponse.newBuilder().setError(error("NoNewDeploys")).build()
+                        : ProposeServiceV1.ProposeResponse.newBuilder().setResult("Success! Block " + blockHash + " created and added.").build();
+            });
+        }
+    }
+
+    private class Repl extends ReplGrpc.ReplImplBase {
+        private final ArrayDeque<String> entries = new ArrayDeque<>();
+
+        @Override
+        public void eval(ReplOuterClass.EvalRequest request, StreamObserver<ReplOuterClass.ReplResponse> observer) {
+            respond(observer, config.latency(), () -> ReplOuterClass.ReplResponse.newBuilder()
+                    .setOutput(injectFailure() ? "" : evalOutput(request.getProgram()))
+                    .build());
+        }
+
+        private synchronized String evalOutput(String program) {
+            if (entries.size() == REPL_ENTRIES) {
+                entries.removeFirst();
+            }
+            entries.addLast(" @{\"loadtest\"}!(\"" + Integer.toHexString(program.hashCode()) + "\")");
+            StringBuilder output = new StringBuilder(storageFiller.length() + entries.size() * 32 + 64)
+                    .append("Deployment cost: Cost(").append(program.length() * 97L).append(",eval)\n")
+                    .append("Storage Contents:\n");
+            for (String entry : entries) {
+                output.append(entry).append(" |\n");
+            }
+            return output.append(storageFiller).toString();
+        }
+    }
+}
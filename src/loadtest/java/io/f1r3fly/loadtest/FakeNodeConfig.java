@@ -0,0 +1,26 @@
+package io.f1r3fly.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Behaviour of the {@link FakeNode}. Every value can be overridden with a {@code fakenode.*} system property.
+ *
+ * @param latency           mean latency of doDeploy, findDeploy, isFinalized and eval; actual latencies are
+ *                          uniformly spread over 0.5x to 1.5x of it
+ * @param proposeLatency    mean latency of a propose
+ * @param errorRate         probability that any call answers with a ServiceError
+ * @param finalizationDelay time from a block being proposed until isFinalized reports it as finalized
+ * @param replOutputBytes   approximate size of the storage contents every eval returns
+ */
+public record FakeNodeConfig(Duration latency, Duration proposeLatency, double errorRate,
+                             Duration finalizationDelay, int replOutputBytes) {
+
+    public static FakeNodeConfig fromSystemProperties() {
+        return new FakeNodeConfig(
+                Duration.ofMillis(Long.getLong("fakenode.latency.ms", 5)),
+                Duration.ofMillis(Long.getLong("fakenode.propose.latency.ms", 200)),
+                Double.parseDouble(System.getProperty("fakenode.error.rate", "0.0")),
+                Duration.ofMillis(Long.getLong("fakenode.finalization.delay.ms", 1000)),
+                Integer.getInteger("fakenode.repl.output.bytes", 4096));
+    }
+}
@@ -0,0 +1,178 @@
+package io.f1r3fly.loadtest;
+
+import io.f1r3fly.Bot;
+import io.f1r3fly.Main;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test: the whole bot minus Discord and the shard. The Spring context is the production one
+ * except {@link Main}, which would connect to Discord; nodes are a {@link FakeNode} and messages come from
+ * {@link SyntheticTraffic}. Run with {@code ./gradlew loadTest}; {@code loadtest.*} and {@code fakenode.*}
+ * system properties tune the run.
+ * <p>
+ * Reports deploys/sec, eval and deploy latency percentiles and peak heap, and writes them as JSON to
+ * {@code loadtest.results}. If {@code loadtest.min.deploys.per.sec} or {@code loadtest.max.eval.p99.ms} is set
+ * and missed, exits with status 1.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@ComponentScan(basePackages = "io.f1r3fly",
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = Main.class))
+public class LoadTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+
+    // throwaway key, only ever used against the fake node
+    private static final String SIGNING_KEY = "b18e1d0045995ec3d010c387ccfeb984d783af8fbb0f40fa7db126d889f6dadd";
+
+    private static final Map<String, String> BOT_DEFAULTS = Map.of(
+            "grpc.nodes", "validator@inprocess:fake-validator,observer@inprocess:fake-observer",
+            "rholang.signing.key", SIGNING_KEY,
+            "discord.bot.token", "unused",
+            "metrics.port", "0",
+            "journal.path", "build/loadtest/deploys.journal",
+            "finalization.poll.interval.ms", "250",
+            "logging.level.io.f1r3fly", "WARN",
+            "logging.level.io.f1r3fly.loadtest", "INFO");
+
+    public static void main(String[] args) throws Exception {
+        BOT_DEFAULTS.forEach(System.getProperties()::putIfAbsent);
+
+        int rate = Integer.getInteger("loadtest.rate", 2000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup.s", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration.s", 60));
+        Duration drain = Duration.ofSeconds(Long.getLong("loadtest.drain.s", 30));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 512);
+        int evalPercent = Integer.getInteger("loadtest.eval.percent", 70);
+        int chatterPercent = Integer.getInteger("loadtest.chatter.percent", 50);
+        Path results = Path.of(System.getProperty("loadtest.results", "build/reports/loadtest/results.json"));
+
+        FakeNodeConfig nodeConfig = FakeNodeConfig.fromSystemProperties();
+        FakeNode node = new FakeNode(nodeConfig).start("fake-validator", "fake-observer");
+        ConfigurableApplicationContext context = SpringApplication.run(LoadTest.class, args);
+        HeapSampler heap = new HeapSampler();
+        SyntheticTraffic.Stats stats;
+        try {
+            SyntheticTraffic traffic = new SyntheticTraffic(context.getBean(Bot.class), concurrency, evalPercent, chatterPercent);
+            LOGGER.info("Warming up for {}s at {} messages/s", warmup.toSeconds(), rate);
+            traffic.run(rate, warmup, Duration.ZERO);
+            traffic.reset();
+            heap.start();
+            LOGGER.info("Measuring for {}s at {} messages/s against {}", duration.toSeconds(), rate, nodeConfig);
+            stats = traffic.run(rate, duration, drain);
+        } finally {
+            heap.stop();
+            context.close();
+            node.shutdown();
+        }
+
+        String report = report(rate, concurrency, evalPercent, chatterPercent, nodeConfig, stats, heap);
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, report);
+        System.out.println(report);
+
+        if (!meetsThresholds(stats)) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean meetsThresholds(SyntheticTraffic.Stats stats) {
+        boolean ok = true;
+        String minDeploys = System.getProperty("loadtest.min.deploys.per.sec");
+        if (minDeploys != null && deploysPerSecond(stats) < Double.parseDouble(minDeploys)) {
+            LOGGER.error("{} deploys/s is below loadtest.min.deploys.per.sec={}", deploysPerSecond(stats), minDeploys);
+            ok = false;
+        }
+        String maxEvalP99 = System.getProperty("loadtest.max.eval.p99.ms");
+        if (maxEvalP99 != null && percentileMillis(stats.evals(), 0.99) > Double.parseDouble(maxEvalP99)) {
+            LOGGER.error("eval p99 of {} ms is above loadtest.max.eval.p99.ms={}", percentileMillis(stats.evals(), 0.99), maxEvalP99);
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static double deploysPerSecond(SyntheticTraffic.Stats stats) {
+        return stats.deploys().count() / stats.elapsedSeconds();
+    }
+
+    private static double percentileMillis(Timer timer, double percentile) {
+        for (var value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static String report(int rate, int concurrency, int evalPercent, int chatterPercent, FakeNodeConfig node,
+                                 SyntheticTraffic.Stats stats, HeapSampler heap) {
+        double seconds = stats.elapsedSeconds();
+        return String.format(Locale.ROOT, """
+                        {
+                          "rate": %d, "concurrency": %d, "evalPercent": %d, "chatterPercent": %d,
+                          "node": {"latencyMs": %d, "proposeLatencyMs": %d, "errorRate": %s, "finalizationDelayMs": %d, "replOutputBytes": %d},
+                          "seconds": %.1f,
+                          "deploysPerSec": %.1f, "deployP50Ms": %.1f, "deployP99Ms": %.1f,
+                          "evalsPerSec": %.1f, "evalP50Ms": %.1f, "evalP99Ms": %.1f,
+                          "failures": %d, "rejected": %d, "saturated": %d,
+                          "peakHeapMb": %.1f, "heapAfterGcMb": %.1f
+                        }
+                        """,
+                rate, concurrency, evalPercent, chatterPercent,
+                node.latency().toMillis(), node.proposeLatency().toMillis(), node.errorRate(),
+                node.finalizationDelay().toMillis(), node.replOutputBytes(),
+                seconds,
+                stats.deploys().count() / seconds, percentileMillis(stats.deploys(), 0.5), percentileMillis(stats.deploys(), 0.99),
+                stats.evals().count() / seconds, percentileMillis(stats.evals(), 0.5), percentileMillis(stats.evals(), 0.99),
+                stats.failures(), stats.rejected(), stats.saturated(),
+                heap.peakBytes() / 1048576.0, heap.afterGcBytes() / 1048576.0);
+    }
+
+    /**
+     * Peak used heap, sampled every 100 ms, plus what is left after a full GC at the end of the run.
+     */
+    private static final class HeapSampler {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        private final AtomicLong peak = new AtomicLong();
+        private long afterGc;
+
+        void start() {
+            sampler.scheduleAtFixedRate(() -> peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                    0, 100, TimeUnit.MILLISECONDS);
+        }
+
+        void stop() {
+            sampler.shutdownNow();
+            System.gc();
+            afterGc = memory.getHeapMemoryUsage().getUsed();
+        }
+
+        long peakBytes() {
+            return peak.get();
+        }
+
+        long afterGcBytes() {
+            return afterGc;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package io.f1r3fly.loadtest;
+
+import io.f1r3fly.Bot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.requests.restaction.MessageAction;
+import org.mockito.Answers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Feeds {@link Bot#onMessageReceived} with synthetic {@link MessageReceivedEvent}s at a fixed rate, the way JDA would.
+ * <p>
+ * Commands run on {@code concurrency} simulated users, each in its own channel and with at most one command
+ * outstanding; the reply that ends a command (anything but deploy progress) frees the user again and its
+ * latency is recorded. Ordinary chatter is interleaved and only costs the bot a pre-check.
+ */
+public class SyntheticTraffic {
+    private static final String[] CHATTER = {
+            "hey, is the node up?",
+            "lgtm",
+            "I think the last deploy is still waiting for finalization, give it a minute",
+            "anyone know why propose keeps failing?",
+    };
+
+    private final Bot bot;
+    private final int evalPercent;
+    private final int chatterPercent;
+    private final BlockingQueue<SimulatedUser> idle;
+    private final List<MessageReceivedEvent> chatter = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Stats stats = new Stats();
+
+    public SyntheticTraffic(Bot bot, int concurrency, int evalPercent, int chatterPercent) {
+        this.bot = bot;
+        this.evalPercent = evalPercent;
+        this.chatterPercent = chatterPercent;
+        this.idle = new ArrayBlockingQueue<>(concurrency);
+        // at most 8 users per guild, so the per-guild limit of the scheduler is not what gets measured
+        for (int i = 0; i < concurrency; i++) {
+            idle.add(new SimulatedUser(i, i / 8));
+        }
+        for (String text : CHATTER) {
+            chatter.add(new SimulatedUser(-1, -1).event(text));
+        }
+    }
+
+    /**
+     * Sends {@code ratePerSecond} messages per second for {@code duration}, then waits up to {@code drain}
+     * for outstanding commands.
+     */
+    public Stats run(int ratePerSecond, Duration duration, Duration drain) throws InterruptedException {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        long end = System.nanoTime() + duration.toNanos();
+        double perTick = ratePerSecond / 1000.0;
+        double owed = 0;
+        long next = System.nanoTime();
+        while (next < end) {
+            owed += perTick;
+            for (; owed >= 1; owed--) {
+                send();
+            }
+            next += tickNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+        }
+        long drainEnd = System.nanoTime() + drain.toNanos();
+        while (idle.remainingCapacity() > 0 && System.nanoTime() < drainEnd) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return stats;
+    }
+
+    /**
+     * Starts a new measurement, e.g. after a warmup run.
+     */
+    public void reset() {
+        stats = new Stats();
+    }
+
+    private void send() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < chatterPercent) {
+            bot.onMessageReceived(chatter.get(random.nextInt(chatter.size())));
+            return;
+        }
+        SimulatedUser user = idle.poll();
+        if (user == null) {
+            stats.saturated.increment();
+            return;
+        }
+        long n = sequence.incrementAndGet();
+        boolean eval = random.nextInt(100) < evalPercent;
+        // every term is unique, so the deploy cache does not short-circuit the pipeline
+        user.send(eval ? Kind.EVAL : Kind.DEPLOY, eval
+                ? "!eval new x in { x!(" + n + ") }"
+                : "!deploy new loadtest in { loadtest!(" + n + ") }");
+    }
+
+    enum Kind { DEPLOY, EVAL }
+
+    public static final class Stats {
+        private final MeterRegistry registry = new SimpleMeterRegistry();
+        final long startedAt = System.nanoTime();
+        final Timer deploys = timer("deploy");
+        final Timer evals = timer("eval");
+        final Counter failures = registry.counter("failures");
+        final Counter rejected = registry.counter("rejected");
+        final Counter saturated = registry.counter("saturated");
+
+        private Timer timer(String kind) {
+            return Timer.builder("loadtest.latency")
+                    .tag("kind", kind)
+                    .publishPercentiles(0.5, 0.99)
+                    .distributionStatisticExpiry(Duration.ofHours(1))
+                    .register(registry);
+        }
+
+        public Timer deploys() {
+            return deploys;
+        }
+
+        public Timer evals() {
+            return evals;
+        }
+
+        public long failures() {
+            return (long) failures.count();
+        }
+
+        public long rejected() {
+            return (long) rejected.count();
+        }
+
+        /**
+         * Commands not sent because every simulated user was still waiting for a reply.
+         */
+        public long saturated() {
+            return (long) saturated.count();
+        }
+
+        public double elapsedSeconds() {
+            return (System.nanoTime() - startedAt) / 1e9;
+        }
+    }
+
+    private final class SimulatedUser {
+        private final int id;
+        private final int guild;
+        private final MessageReceivedEvent event;
+        private volatile String content;
+        private volatile Kind kind;
+        private volatile long sentAt;
+
+        SimulatedUser(int id, int guild) {
+            this.id = id;
+            this.guild = guild;
+            this.event = event(null);
+        }
+
+        private MessageReceivedEvent event(String fixedContent) {
+            MessageReceivedEvent event = stub(MessageReceivedEvent.class);
+            Message message = stub(Message.class);
+            User author = stub(User.class);
+            Guild guild = stub(Guild.class);
+            MessageChannel channel = stub(MessageChannel.class);
+            MessageAction action = mock(MessageAction.class, withSettings().stubOnly().defaultAnswer(Answers.RETURNS_SELF));
+
+            when(event.getMessage()).thenReturn(message);
+            when(event.getAuthor()).thenReturn(author);
+            when(event.getChannel()).thenReturn(channel);
+            when(event.isFromGuild()).thenReturn(true);
+            when(event.getGuild()).thenReturn(guild);
+            if (fixedContent != null) {
+                when(message.getContentRaw()).thenReturn(fixedContent);
+            } else {
+                when(message.getContentRaw()).thenAnswer(invocation -> content);
+            }
+            when(author.getId()).thenReturn("user-" + id);
+            when(guild.getId()).thenReturn("guild-" + this.guild);
+            when(channel.getId()).thenReturn("channel-" + id);
+            when(channel.sendMessage(any(CharSequence.class))).thenAnswer(invocation -> {
+                onReply(invocation.getArgument(0, CharSequence.class).toString());
+                return action;
+            });
+            when(channel.editMessageById(any(String.class), any(CharSequence.class))).thenReturn(action);
+            // replies are dispatched one request at a time per channel, so every request has to complete
+            when(message.getId()).thenReturn("message-" + id);
+            doAnswer(invocation -> {
+                Consumer<? super Message> success = invocation.getArgument(0);
+                if (success != null) {
+                    success.accept(message);
+                }
+                return null;
+            }).when(action).queue(any(), any());
+            return event;
+        }
+
+        void send(Kind kind, String content) {
+            this.kind = kind;
+            this.content = content;
+            this.sentAt = System.nanoTime();
+            bot.onMessageReceived(event);
+        }
+
+        private void onReply(String reply) {
+            // deploy progress is posted as "Deploy <id> ..." and edited in place afterwards
+            if (kind == null || reply.startsWith("Deploy ")) {
+                return;
+            }
+            Stats current = stats;
+            long latency = System.nanoTime() - sentAt;
+            if (reply.startsWith("The bot is busy")) {
+                current.rejected.increment();
+            } else if (reply.startsWith("Deployed successfully")) {
+                current.deploys.record(latency, TimeUnit.NANOSECONDS);
+            } else if ((reply.startsWith("Eval result") || reply.startsWith("The result is")) && !reply.contains("Eval failed")) {
+                current.evals.record(latency, TimeUnit.NANOSECONDS);
+            } else {
+                current.failures.increment();
+            }
+            kind = null;
+            idle.add(this);
+        }
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -1,159 +1,70 @@
 package io.f1r3fly;
 
+import io.f1r3fly.commands.CommandRouter;
+import io.f1r3fly.commands.DeployRecovery;
+import io.f1r3fly.metrics.ShardMetrics;
+import io.f1r3fly.metrics.StartupTimer;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.ReadyEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
-import io.f1r3fly.grcp.Deployer;
+import net.dv8tion.jda.api.sharding.ShardManager;
 import org.jetbrains.annotations.NotNull;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class Bot extends ListenerAdapter {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(Bot.class);
-    private final Deployer deployer;
+    private final CommandRouter commandRouter;
+    private final StartupTimer startupTimer;
+    private final DeployRecovery deployRecovery;
+    private final ShardMetrics shardMetrics;
+    private final Set<Integer> readyShards = ConcurrentHashMap.newKeySet();
 
-    @Autowired
-    public Bot(Deployer deployer) {
-        this.deployer = deployer;
-    }
-
-    @Override
-    public void onMessageReceived(@NotNull MessageReceivedEvent event) {
-        if (event.getAuthor().isBot()) return;
-
-        String message = event.getMessage().getContentRaw();
-        String commandPattern = "(?i)(!deploy|!eval|!help)(\\s+-f\\s+)?(\\S+)?\\s*(.*)";
-        Pattern pattern = Pattern.compile(commandPattern);
-        Matcher matcher = pattern.matcher(message);
+    // same range as the shard manager is built with, see Main
+    @Value("${discord.shards.min:-1}")
+    private int minShardId;
 
-        if (matcher.matches()) {
-            String command = matcher.group(1).toLowerCase();
-            String fileFlag = matcher.group(2);
-            String fileName = matcher.group(3);
-            String argument = matcher.group(4).trim();
-
-            if (fileFlag != null && (fileName == null || fileName.isEmpty())) {
-                event.getChannel().sendMessage("Please specify the file name after the -f flag.").queue();
-                return;
-            }
-
-            if (fileFlag != null) {
-                processCommandWithFile(event, command, fileName);
-            } else {
-                switch (command) {
-                    case "!deploy":
-                        if (argument.isEmpty()) {
-                            event.getChannel().sendMessage("Please provide the Rholang code to deploy.").queue();
-                        } else {
-                            deployRholangCode(event, argument);
-                        }
-                        break;
-                    case "!eval":
-                        if (argument.isEmpty()) {
-                            event.getChannel().sendMessage("Please provide the Rholang code to evaluate.").queue();
-                        } else {
-                            evalRholangCode(event, argument);
-                        }
-                        break;
-                    case "!help":
-                        showHelp(event);
-                        break;
-                    default:
-                        showHelp(event);
-                        break;
-                }
-            }
-        } else if (message.startsWith("!")) {
-            showHelp(event);
-        }
-    }
-
-    private void processCommandWithFile(MessageReceivedEvent event, String command, String fileName) {
-        if (event.getMessage().getAttachments().isEmpty()) {
-            event.getChannel().sendMessage("Please attach the file to the message.").queue();
-            return;
-        }
+    @Value("${discord.shards.max:-1}")
+    private int maxShardId;
 
-        event.getMessage().getAttachments().stream()
-                .filter(attachment -> attachment.getFileName().equals(fileName))
-                .findFirst()
-                .ifPresentOrElse(attachment -> {
-                    attachment.downloadToFile(new java.io.File(fileName))
-                            .thenAccept(file -> {
-                                try {
-                                    String fileContent = new String(Files.readAllBytes(file.toPath()));
-                                    if ("!deploy".equals(command)) {
-                                        deployRholangCodeFromFile(event, fileContent);
-                                    } else if ("!eval".equals(command)) {
-                                        evalRholangCodeFromFile(event, fileContent);
-                                    }
-                                } catch (IOException e) {
-                                    event.getChannel().sendMessage("Failed to read the file: " + e.getMessage()).queue();
-                                }
-                            })
-                            .exceptionally(throwable -> {
-                                event.getChannel().sendMessage("Failed to download the file: " + throwable.getMessage()).queue();
-                                return null;
-                            });
-                }, () -> event.getChannel().sendMessage("File not found in attachments.").queue());
+    @Autowired
+    public Bot(CommandRouter commandRouter, StartupTimer startupTimer, DeployRecovery deployRecovery, ShardMetrics shardMetrics) {
+        this.commandRouter = commandRouter;
+        this.startupTimer = startupTimer;
+        this.deployRecovery = deployRecovery;
+        this.shardMetrics = shardMetrics;
     }
 
-    private void deployRholangCode(MessageReceivedEvent event, String rholangCode) {
-        try {
-            LOGGER.info("Deploying code: " + rholangCode);
-            String result = deployer.deploy(rholangCode.replaceAll("[\\n\\r\\t]", " "), false, Deployer.RHOLANG);
-            event.getChannel().sendMessage("Deployed successfully. Block hash: " + result).queue();
-        } catch (Exception e) {
-            event.getChannel().sendMessage("Deployment failed: " + e.getMessage()).queue();
+    @Override
+    public void onReady(@NotNull ReadyEvent event) {
+        JDA shard = event.getJDA();
+        shardMetrics.bind(shard);
+        shardMetrics.logReady(shard);
+        deployRecovery.resumeOn(shard);
+
+        // the shard manager starts its shards one after another, so the ones it has started so far are not all of them
+        readyShards.add(shard.getShardInfo().getShardId());
+        ShardManager shardManager = shard.getShardManager();
+        if (shardManager == null || readyShards.size() == expectedShards(shardManager)) {
+            startupTimer.markReady();
+            deployRecovery.dropUnreachable();
         }
     }
 
-    private void evalRholangCode(MessageReceivedEvent event, String rholangCode) {
-        LOGGER.info("Evaluating code");
-
-        deployer.eval(rholangCode.replaceAll("[\\n\\r\\t]", " "))
-                .subscribe().with(result -> {
-                    LOGGER.info("Eval result: " + result);
-                    event.getChannel().sendMessage("Eval result: " + result).queue();
-                }, failure -> {
-                    event.getChannel().sendMessage("Eval failed: " + failure.getMessage()).queue();
-                });
+    private int expectedShards(ShardManager shardManager) {
+        return minShardId >= 0 ? maxShardId - minShardId + 1 : shardManager.getShardsTotal();
     }
 
-    private void deployRholangCodeFromFile(MessageReceivedEvent event, String fileContent) {
-        try {
-            LOGGER.info("Deploying code from file.");
-            String result = deployer.deploy(fileContent, false, Deployer.RHOLANG);
-            event.getChannel().sendMessage("Deployed successfully. Block hash: " + result).queue();
-        } catch (Exception e) {
-            event.getChannel().sendMessage("Deployment failed: " + e.getMessage()).queue();
-        }
-    }
-
-    private void evalRholangCodeFromFile(MessageReceivedEvent event, String fileContent) {
-        LOGGER.info("Evaluating code from file.");
-
-        deployer.eval(fileContent)
-                .subscribe().with(result -> {
-                    LOGGER.info("Eval result: " + result);
-                    event.getChannel().sendMessage("Eval result: " + result).queue();
-                }, failure -> {
-                    event.getChannel().sendMessage("Eval failed: " + failure.getMessage()).queue();
-                });
-    }
+    @Override
+    public void onMessageReceived(@NotNull MessageReceivedEvent event) {
+        if (event.getAuthor().isBot()) return;
 
-    private void showHelp(MessageReceivedEvent event) {
-        event.getChannel().sendMessage("Commands: \n!deploy inline rholang-code; \n!deploy -f fileName;  " +
-                "\n!eval inline rholang-code; \n!eval -f fileName;").queue();
+        commandRouter.route(event);
     }
-
 }
-
@@ -1,31 +1,77 @@
 package io.f1r3fly;
 
-import net.dv8tion.jda.api.JDABuilder;
+import io.f1r3fly.grcp.Deployer;
 import net.dv8tion.jda.api.OnlineStatus;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @SpringBootApplication
 public class Main implements CommandLineRunner {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
+
     @Value("${discord.bot.token}")
     private String token;
 
+    // refresh the context, warm the backend up, route sample commands without Discord and exit;
+    // used to record the AppCDS archive at image build time
+    @Value("${startup.training:false}")
+    private boolean trainingRun;
+
+    // -1 lets Discord recommend the shard count
+    @Value("${discord.shards.total:-1}")
+    private int shardsTotal;
+
+    // the range of shard ids this process runs, so shards can be split across processes; -1 runs all of them
+    @Value("${discord.shards.min:-1}")
+    private int minShardId;
+
+    @Value("${discord.shards.max:-1}")
+    private int maxShardId;
+
     @Autowired
     private Bot bot;
 
+    @Autowired
+    private Deployer deployer;
+
+    @Autowired
+    private TrainingRun training;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
     }
 
     @Override
     public void run(String... args) throws Exception {
+        // channels and the signing context come up while JDA logs in and connects to the gateway
+        CompletableFuture<Void> warmUp = deployer.warmUp();
+        if (trainingRun) {
+            warmUp.join();
+            shardManagerBuilder();
+            training.routeSampleCommands();
+            LOGGER.info("Training run finished");
+            System.exit(SpringApplication.exit(context));
+        }
+        warmUp.exceptionally(e -> {
+            LOGGER.warn("Backend warmup failed, continuing with lazy initialization", e);
+            return null;
+        });
         startBot();
     }
 
@@ -35,11 +81,26 @@ public class Main implements CommandLineRunner {
             System.exit(1);
         }
 
-        JDABuilder.createDefault(token)
-                .enableIntents(List.of(GatewayIntent.GUILD_MEMBERS, GatewayIntent.MESSAGE_CONTENT))
+        if (minShardId >= 0 && shardsTotal < 1) {
+            System.err.println("A shard range needs a fixed shard count. Please set DISCORD_SHARDS_TOTAL as well.");
+            System.exit(1);
+        }
+
+        shardManagerBuilder().build();
+    }
+
+    // commands only read messages and reply in the same channel: no member list, presence or emoji caches,
+    // and no member chunking; the light builder keeps just guilds and channels
+    private DefaultShardManagerBuilder shardManagerBuilder() {
+        DefaultShardManagerBuilder builder = DefaultShardManagerBuilder.createLight(token,
+                        List.of(GatewayIntent.GUILD_MESSAGES, GatewayIntent.DIRECT_MESSAGES, GatewayIntent.MESSAGE_CONTENT))
+                .setShardsTotal(shardsTotal)
                 .setStatus(OnlineStatus.ONLINE)
                 .setActivity(Activity.listening("your commands"))
-                .addEventListeners(bot)
-                .build();
+                .addEventListeners(bot);
+        if (minShardId >= 0) {
+            builder.setShards(minShardId, maxShardId);
+        }
+        return builder;
     }
 }
@@ -0,0 +1,108 @@
+package io.f1r3fly;
+
+import io.f1r3fly.commands.CommandRouter;
+import io.f1r3fly.commands.CommandScheduler;
+import io.f1r3fly.replies.ReplyDispatcher;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.ChannelType;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Routes a few commands through {@link CommandRouter} during the training run ({@code startup.training=true}),
+ * so the AppCDS archive also holds the JDA event, command handler and reply classes of the first-command path.
+ * Discord is never contacted: the event's JDA, message and channel are proxies on which every request succeeds
+ * right away.
+ */
+@Component
+public class TrainingRun {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrainingRun.class);
+
+    // none of them changes anything on a node that happens to be reachable: help, a deploy without code, an eval of Nil
+    private static final List<String> COMMANDS = List.of("!help", "!deploy", "!eval Nil");
+    private static final long TIMEOUT_MS = 15_000;
+
+    private final CommandRouter commandRouter;
+    private final CommandScheduler scheduler;
+    private final ReplyDispatcher replies;
+
+    @Autowired
+    public TrainingRun(CommandRouter commandRouter, CommandScheduler scheduler, ReplyDispatcher replies) {
+        this.commandRouter = commandRouter;
+        this.scheduler = scheduler;
+        this.replies = replies;
+    }
+
+    /**
+     * Returns once the commands and their replies are done, or after {@code TIMEOUT_MS}.
+     */
+    public void routeSampleCommands() throws InterruptedException {
+        JDA jda = stub(JDA.class, Map.of());
+        MessageChannel channel = stub(MessageChannel.class, Map.of("getType", ChannelType.PRIVATE));
+        for (String content : COMMANDS) {
+            Message message = stub(Message.class, Map.of(
+                    "getContentRaw", content,
+                    "getChannel", channel,
+                    "getChannelType", ChannelType.PRIVATE));
+            commandRouter.route(new MessageReceivedEvent(jda, 0, message));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (scheduler.queueDepth() + scheduler.inFlight() + replies.pending() > 0) {
+            if (System.nanoTime() > deadline) {
+                LOGGER.warn("Training commands did not finish within {} ms", TIMEOUT_MS);
+                return;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Answers {@code values} by method name, strings with "0", primitives with zero, other interfaces with further
+     * stubs, and completes every {@code queue(success, failure)} call at once with a stub message.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Object> values) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (name) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "training " + type.getSimpleName();
+                };
+            }
+            if (values.containsKey(name)) {
+                return values.get(name);
+            }
+            if (name.equals("queue") && args != null && args.length > 0 && args[0] instanceof Consumer<?> success) {
+                ((Consumer<Object>) success).accept(stub(Message.class, Map.of()));
+                return null;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == String.class) {
+                return "0";
+            } else if (returnType.isPrimitive() && returnType != void.class) {
+                // the zero value of the primitive type
+                return Array.get(Array.newInstance(returnType, 1), 0);
+            } else if (returnType.isInterface()) {
+                return stub(returnType, Map.of());
+            }
+            return null;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
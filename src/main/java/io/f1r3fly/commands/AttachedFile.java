@@ -0,0 +1,8 @@
+package io.f1r3fly.commands;
+
+/**
+ * @param name    attachment name, or the entry path for files from a zip
+ * @param content file content decoded as UTF-8
+ */
+public record AttachedFile(String name, String content) {
+}
@@ -0,0 +1,170 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.errors.AttachmentError;
+import net.dv8tion.jda.api.entities.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Streams command attachments straight into memory. Nothing touches the disk, so concurrent uploads
+ * with the same name cannot clobber each other, and the size cap is enforced while the data is still arriving.
+ */
+@Component
+public class AttachmentLoader {
+    private final int maxBytes;
+    private final int maxFiles;
+
+    public AttachmentLoader(@Value("${attachment.max.bytes:1048576}") int maxBytes,
+                            @Value("${attachment.max.files:50}") int maxFiles) {
+        this.maxBytes = maxBytes;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * Loads the attachment called {@code fileName} as UTF-8. Completes exceptionally with {@link AttachmentError}.
+     */
+    public CompletableFuture<String> load(Message message, String fileName) {
+        if (message.getAttachments().isEmpty()) {
+            return CompletableFuture.failedFuture(new AttachmentError("Please attach the file to the message."));
+        }
+
+        return message.getAttachments().stream()
+                .filter(attachment -> attachment.getFileName().equals(fileName))
+                .findFirst()
+                .map(this::load)
+                .orElseGet(() -> CompletableFuture.failedFuture(new AttachmentError("File not found in attachments.")));
+    }
+
+    public CompletableFuture<String> load(Message.Attachment attachment) {
+        return loadBytes(attachment).thenApply(bytes -> new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Loads several files for a batch command, downloading all attachments concurrently.
+     * {@code fileName} is either {@link ParsedCommand#ALL_FILES} for every attachment or the name of one attachment;
+     * zip attachments are expanded into their files either way. The result keeps the attachment (and zip entry) order.
+     */
+    public CompletableFuture<List<AttachedFile>> loadBatch(Message message, String fileName) {
+        List<Message.Attachment> attachments = message.getAttachments().stream()
+                .filter(attachment -> ParsedCommand.ALL_FILES.equals(fileName) || attachment.getFileName().equals(fileName))
+                .toList();
+        if (attachments.isEmpty()) {
+            return CompletableFuture.failedFuture(new AttachmentError(message.getAttachments().isEmpty()
+                    ? "Please attach the files to the message."
+                    : "File not found in attachments."));
+        }
+        if (attachments.size() > maxFiles) {
+            return CompletableFuture.failedFuture(tooMany());
+        }
+
+        List<CompletableFuture<List<AttachedFile>>> downloads = attachments.stream()
+                .map(attachment -> loadBytes(attachment).thenApply(bytes -> expand(attachment.getFileName(), bytes)))
+                .toList();
+        return CompletableFuture.allOf(downloads.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    List<AttachedFile> files = new ArrayList<>();
+                    downloads.forEach(download -> files.addAll(download.join()));
+                    if (files.size() > maxFiles) {
+                        throw tooMany();
+                    }
+                    if (files.isEmpty()) {
+                        throw new AttachmentError("The attachments contain no files.");
+                    }
+                    return files;
+                });
+    }
+
+    private CompletableFuture<byte[]> loadBytes(Message.Attachment attachment) {
+        if (attachment.getSize() > maxBytes) {
+            return CompletableFuture.failedFuture(tooLarge(attachment.getFileName()));
+        }
+
+        return attachment.getProxy().download()
+                .handle((stream, throwable) -> {
+                    if (throwable != null) {
+                        throw new AttachmentError("Failed to download the file: " + throwable.getMessage(), throwable);
+                    }
+                    try (stream) {
+                        return read(stream, attachment.getSize(), attachment.getFileName());
+                    } catch (IOException e) {
+                        throw new AttachmentError("Failed to read the file: " + e.getMessage(), e);
+                    }
+                });
+    }
+
+    /**
+     * Unwraps the user-facing message from a failure of {@link #load}.
+     */
+    public static String failureMessage(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause().getMessage()
+                : throwable.getMessage();
+    }
+
+    private List<AttachedFile> expand(String fileName, byte[] bytes) {
+        if (!fileName.toLowerCase(Locale.ROOT).endsWith(".zip")) {
+            return List.of(new AttachedFile(fileName, new String(bytes, StandardCharsets.UTF_8)));
+        }
+        List<AttachedFile> files = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                if (files.size() == maxFiles) {
+                    throw tooMany();
+                }
+                // entry sizes in the header can lie, so the cap is enforced while inflating
+                byte[] content = read(zip, (int) Math.max(0, Math.min(entry.getSize(), maxBytes)), entry.getName());
+                files.add(new AttachedFile(entry.getName(), new String(content, StandardCharsets.UTF_8)));
+            }
+        } catch (IOException e) {
+            throw new AttachmentError("Failed to unpack %s: %s".formatted(fileName, e.getMessage()), e);
+        }
+        return files;
+    }
+
+    // the declared size sizes the buffer up front; the cap still holds if the stream turns out longer
+    private byte[] read(InputStream stream, int declaredSize, String fileName) throws IOException {
+        byte[] buffer = new byte[Math.max(1, Math.min(declaredSize, maxBytes))];
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                if (length >= maxBytes) {
+                    if (stream.read() < 0) {
+                        break;
+                    }
+                    throw tooLarge(fileName);
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(maxBytes, length * 2L));
+            }
+            int read = stream.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    private AttachmentError tooMany() {
+        return new AttachmentError("Too many files, the limit is %d.".formatted(maxFiles));
+    }
+
+    private AttachmentError tooLarge(String fileName) {
+        return new AttachmentError("File %s is too large, the limit is %d KB.".formatted(fileName, maxBytes / 1024));
+    }
+}
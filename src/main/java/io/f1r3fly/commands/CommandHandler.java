@@ -0,0 +1,28 @@
+package io.f1r3fly.commands;
+
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A bot command. Every Spring bean implementing this is picked up by {@link CommandRouter}.
+ * Handlers run on the {@link CommandScheduler} pool and must not block on the node;
+ * the command counts against its guild and user limits until the returned stage completes.
+ */
+public interface CommandHandler {
+
+    /**
+     * Lower-case name the command is invoked by, without the {@code !} prefix.
+     */
+    String name();
+
+    /**
+     * Lines shown by {@code !help}.
+     */
+    default List<String> usage() {
+        return List.of();
+    }
+
+    CompletionStage<?> handle(MessageReceivedEvent event, ParsedCommand command);
+}
@@ -0,0 +1,84 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.errors.CommandSyntaxError;
+import io.f1r3fly.grcp.Deployer;
+
+import java.util.Locale;
+
+/**
+ * Hand-written parser for {@code !command [-f fileName] [-l language] argument}.
+ * Flags are only recognised before the argument; the argument keeps its line breaks.
+ */
+public final class CommandParser {
+    public static final char PREFIX = '!';
+
+    private CommandParser() {
+    }
+
+    /**
+     * Cheap pre-check so chatter is rejected before anything is allocated.
+     */
+    public static boolean isCommand(String content) {
+        return content.length() > 1 && content.charAt(0) == PREFIX;
+    }
+
+    public static ParsedCommand parse(String content) throws CommandSyntaxError {
+        int length = content.length();
+        int nameEnd = tokenEnd(content, 1);
+        String name = content.substring(1, nameEnd).toLowerCase(Locale.ROOT);
+
+        String fileName = null;
+        String language = Deployer.RHOLANG;
+        int position = skipWhitespace(content, nameEnd);
+        while (isFlag(content, position)) {
+            char flag = Character.toLowerCase(content.charAt(position + 1));
+            int valueStart = skipWhitespace(content, position + 2);
+            int valueEnd = tokenEnd(content, valueStart);
+            if (flag == 'f') {
+                if (valueStart == valueEnd) {
+                    throw new CommandSyntaxError("Please specify the file name after the -f flag.");
+                }
+                fileName = content.substring(valueStart, valueEnd);
+            } else {
+                if (valueStart == valueEnd) {
+                    throw new CommandSyntaxError("Please specify the language after the -l flag.");
+                }
+                language = content.substring(valueStart, valueEnd).toLowerCase(Locale.ROOT);
+                if (!Deployer.RHOLANG.equals(language) && !Deployer.METTA_LANGUAGE.equals(language)) {
+                    throw new CommandSyntaxError("Unknown language '%s'. Supported languages: %s, %s."
+                            .formatted(language, Deployer.RHOLANG, Deployer.METTA_LANGUAGE));
+                }
+            }
+            position = skipWhitespace(content, valueEnd);
+        }
+
+        int argumentEnd = length;
+        while (argumentEnd > position && Character.isWhitespace(content.charAt(argumentEnd - 1))) {
+            argumentEnd--;
+        }
+        return new ParsedCommand(name, fileName, language, content.substring(position, argumentEnd));
+    }
+
+    private static boolean isFlag(String content, int position) {
+        if (position + 1 >= content.length() || content.charAt(position) != '-') {
+            return false;
+        }
+        char flag = Character.toLowerCase(content.charAt(position + 1));
+        return (flag == 'f' || flag == 'l')
+                && (position + 2 == content.length() || Character.isWhitespace(content.charAt(position + 2)));
+    }
+
+    private static int skipWhitespace(String content, int position) {
+        while (position < content.length() && Character.isWhitespace(content.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int tokenEnd(String content, int position) {
+        while (position < content.length() && !Character.isWhitespace(content.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,74 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.errors.CommandSyntaxError;
+import io.f1r3fly.metrics.PipelineMetrics;
+import io.f1r3fly.metrics.StartupTimer;
+import io.f1r3fly.replies.ReplyDispatcher;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class CommandRouter {
+    private final Map<String, CommandHandler> handlers = new HashMap<>();
+    private final CommandHandler fallback;
+    private final CommandScheduler scheduler;
+    private final PipelineMetrics metrics;
+    private final StartupTimer startupTimer;
+    private final ReplyDispatcher replies;
+
+    @Autowired
+    public CommandRouter(List<CommandHandler> handlers, CommandScheduler scheduler, PipelineMetrics metrics,
+                         StartupTimer startupTimer, ReplyDispatcher replies) {
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        this.startupTimer = startupTimer;
+        this.replies = replies;
+        handlers.forEach(handler -> {
+            CommandHandler previous = this.handlers.putIfAbsent(handler.name(), handler);
+            if (previous != null) {
+                throw new IllegalStateException("Command '%s' is handled by both %s and %s"
+                        .formatted(handler.name(), previous.getClass().getName(), handler.getClass().getName()));
+            }
+        });
+        this.fallback = this.handlers.get(HelpCommand.NAME);
+    }
+
+    /**
+     * @return {@code false} if the message is not a command at all
+     */
+    public boolean route(MessageReceivedEvent event) {
+        String content = event.getMessage().getContentRaw();
+        if (!CommandParser.isCommand(content)) {
+            return false;
+        }
+
+        ParsedCommand command;
+        try {
+            command = CommandParser.parse(content);
+        } catch (CommandSyntaxError e) {
+            replies.reply(event.getChannel(), e.getMessage());
+            return true;
+        }
+
+        CommandHandler handler = handlers.getOrDefault(command.name(), fallback);
+        // unknown names are folded into "help" to keep the metric's cardinality bounded
+        metrics.countCommand(handler.name());
+        boolean accepted = scheduler.submit(guildKey(event), event.getAuthor().getId(), () -> {
+            startupTimer.markFirstCommand();
+            return handler.handle(event, command);
+        });
+        if (!accepted) {
+            replies.reply(event.getChannel(), "The bot is busy right now, please try again in a moment.");
+        }
+        return true;
+    }
+
+    private static String guildKey(MessageReceivedEvent event) {
+        return event.isFromGuild() ? event.getGuild().getId() : "dm:" + event.getChannel().getId();
+    }
+}
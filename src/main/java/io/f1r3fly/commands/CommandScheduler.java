@@ -0,0 +1,215 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.grcp.DaemonThreadFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs bot commands off the gateway thread with fair sharing between guilds.
+ * <p>
+ * Every guild has its own FIFO queue and guilds are served round-robin, so a noisy guild only delays itself.
+ * A command keeps its guild and user slot until the {@link CompletionStage} it returns completes,
+ * which bounds in-flight deploys and evals, not just the time spent on a pool thread.
+ * A stage that has not completed after {@code timeoutMillis} gives up its slots anyway, so a command that never
+ * completes cannot hold them forever; the default outlasts a deploy waiting for finalization.
+ * Once {@code queueCapacity} commands are waiting, new ones are rejected instead of queued.
+ */
+@Component
+public class CommandScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandScheduler.class);
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final int perGuildLimit;
+    private final int perUserLimit;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    private final Object lock = new Object();
+    private final Map<String, GuildQueue> guildQueues = new HashMap<>();
+    private final ArrayDeque<GuildQueue> roundRobin = new ArrayDeque<>();
+    private final Map<String, Integer> inFlightPerUser = new HashMap<>();
+    private int queued;
+    private int inFlight;
+
+    private final LongAdder rejected = new LongAdder();
+    private final Timer queueWait;
+
+    public CommandScheduler(@Value("${commands.threads:8}") int threads,
+                            @Value("${commands.max.in.flight:256}") int maxInFlight,
+                            @Value("${commands.per.guild.limit:16}") int perGuildLimit,
+                            @Value("${commands.per.user.limit:4}") int perUserLimit,
+                            @Value("${commands.queue.capacity:1024}") int queueCapacity,
+                            @Value("${commands.timeout.ms:900000}") long timeoutMillis,
+                            MeterRegistry registry) {
+        // virtual threads would fit here once the toolchain moves past Java 17
+        this.executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("command-"));
+        this.maxInFlight = maxInFlight;
+        this.perGuildLimit = perGuildLimit;
+        this.perUserLimit = perUserLimit;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+
+        this.queueWait = Timer.builder("f1r3bot.commands.queue.wait")
+                .description("Time commands spend queued before they start")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(registry);
+        registry.gauge("f1r3bot.commands.queue.depth", this, CommandScheduler::queueDepth);
+        registry.gauge("f1r3bot.commands.in.flight", this, CommandScheduler::inFlight);
+        FunctionCounter.builder("f1r3bot.commands.rejected", rejected, LongAdder::sum)
+                .description("Commands turned away because the queue was full")
+                .register(registry);
+    }
+
+    /**
+     * @return {@code false} if the queue is full and the command was dropped
+     */
+    public boolean submit(String guildKey, String userKey, Supplier<CompletionStage<?>> command) {
+        List<Task> runnable;
+        synchronized (lock) {
+            if (queued >= queueCapacity) {
+                rejected.increment();
+                return false;
+            }
+            GuildQueue guild = guildQueues.computeIfAbsent(guildKey, GuildQueue::new);
+            if (guild.tasks.isEmpty()) {
+                roundRobin.addLast(guild);
+            }
+            guild.tasks.addLast(new Task(guild, userKey, command, System.nanoTime()));
+            queued++;
+            runnable = dispatchLocked();
+        }
+        runnable.forEach(task -> executor.execute(() -> run(task)));
+        return true;
+    }
+
+    public int queueDepth() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public double meanWaitMillis() {
+        return queueWait.mean(TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void run(Task task) {
+        queueWait.record(System.nanoTime() - task.enqueuedAt, TimeUnit.NANOSECONDS);
+
+        CompletionStage<?> completion;
+        try {
+            completion = task.command.get();
+        } catch (RuntimeException e) {
+            LOGGER.error("Command failed", e);
+            completion = CompletableFuture.failedFuture(e);
+        }
+        completion.toCompletableFuture()
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, failure) -> {
+                    if (failure instanceof TimeoutException) {
+                        LOGGER.warn("Command did not complete within {} ms, releasing its slot", timeoutMillis);
+                    }
+                    release(task);
+                });
+    }
+
+    private void release(Task task) {
+        List<Task> runnable;
+        synchronized (lock) {
+            inFlight--;
+            task.guild.inFlight--;
+            inFlightPerUser.computeIfPresent(task.userKey, (user, count) -> count == 1 ? null : count - 1);
+            if (task.guild.inFlight == 0 && task.guild.tasks.isEmpty()) {
+                guildQueues.remove(task.guild.key);
+            }
+            runnable = dispatchLocked();
+        }
+        runnable.forEach(next -> executor.execute(() -> run(next)));
+    }
+
+    // one pass over the guilds with queued work, taking at most one command from each, until nothing more can start
+    private List<Task> dispatchLocked() {
+        List<Task> runnable = new ArrayList<>();
+        boolean progress = true;
+        while (progress && inFlight < maxInFlight && !roundRobin.isEmpty()) {
+            progress = false;
+            for (int i = roundRobin.size(); i > 0 && inFlight < maxInFlight; i--) {
+                GuildQueue guild = roundRobin.pollFirst();
+                Task task = guild.inFlight < perGuildLimit ? pollStartable(guild) : null;
+                if (task != null) {
+                    queued--;
+                    inFlight++;
+                    guild.inFlight++;
+                    inFlightPerUser.merge(task.userKey, 1, Integer::sum);
+                    runnable.add(task);
+                    progress = true;
+                }
+                if (!guild.tasks.isEmpty()) {
+                    roundRobin.addLast(guild);
+                }
+            }
+        }
+        return runnable;
+    }
+
+    private Task pollStartable(GuildQueue guild) {
+        Iterator<Task> tasks = guild.tasks.iterator();
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            if (inFlightPerUser.getOrDefault(task.userKey, 0) < perUserLimit) {
+                tasks.remove();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private static final class GuildQueue {
+        final String key;
+        final ArrayDeque<Task> tasks = new ArrayDeque<>();
+        int inFlight;
+
+        GuildQueue(String key) {
+            this.key = key;
+        }
+    }
+
+    private record Task(GuildQueue guild, String userKey, Supplier<CompletionStage<?>> command, long enqueuedAt) {
+    }
+}
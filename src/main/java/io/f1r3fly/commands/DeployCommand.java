@@ -0,0 +1,189 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.grcp.BatchDeployOutcome;
+import io.f1r3fly.grcp.DeployJournal;
+import io.f1r3fly.grcp.DeployListener;
+import io.f1r3fly.grcp.DeployStage;
+import io.f1r3fly.grcp.Deployer;
+import io.f1r3fly.grcp.LogPreview;
+import io.f1r3fly.grcp.NormalizedTerm;
+import io.f1r3fly.grcp.TermNormalizer;
+import io.f1r3fly.replies.ReplyDispatcher;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Order(1)
+public class DeployCommand implements CommandHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeployCommand.class);
+    private static final int SUMMARY_LIMIT = 2000;
+
+    private final Deployer deployer;
+    private final AttachmentLoader attachmentLoader;
+    private final DeployJournal journal;
+    private final ReplyDispatcher replies;
+
+    @Autowired
+    public DeployCommand(Deployer deployer, AttachmentLoader attachmentLoader, DeployJournal journal, ReplyDispatcher replies) {
+        this.deployer = deployer;
+        this.attachmentLoader = attachmentLoader;
+        this.journal = journal;
+        this.replies = replies;
+    }
+
+    @Override
+    public String name() {
+        return "deploy";
+    }
+
+    @Override
+    public List<String> usage() {
+        return List.of("!deploy inline rholang-code", "!deploy -f fileName", "!deploy -f * (all attached files, one block)",
+                "!deploy -f contracts.zip");
+    }
+
+    @Override
+    public CompletionStage<?> handle(MessageReceivedEvent event, ParsedCommand command) {
+        MessageChannel channel = event.getChannel();
+        if (Deployer.METTA_LANGUAGE.equals(command.language())) {
+            replies.reply(channel, "MeTTa deploys are not supported yet.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (command.isBatch()) {
+            LOGGER.info("Deploying a batch of files.");
+            return attachmentLoader.loadBatch(event.getMessage(), command.fileName())
+                    .thenCompose(files -> deployBatch(channel, files))
+                    .exceptionally(throwable -> {
+                        replies.reply(channel, AttachmentLoader.failureMessage(throwable));
+                        return null;
+                    });
+        } else if (command.hasFile()) {
+            LOGGER.info("Deploying code from file.");
+            return attachmentLoader.load(event.getMessage(), command.fileName())
+                    .thenCompose(fileContent -> deploy(channel, TermNormalizer.normalize(fileContent), command.language()))
+                    .exceptionally(throwable -> {
+                        replies.reply(channel, AttachmentLoader.failureMessage(throwable));
+                        return null;
+                    });
+        }
+
+        NormalizedTerm term = TermNormalizer.normalize(command.argument());
+        if (term.term().isEmpty()) {
+            replies.reply(channel, "Please provide the Rholang code to deploy.");
+            return CompletableFuture.completedFuture(null);
+        }
+        LOGGER.info("Deploying code: {}", LogPreview.of(term.term()));
+        return deploy(channel, term, command.language());
+    }
+
+    // the deploy stays in the journal from ACCEPTED until its result is posted, so a restart can resume it;
+    // its stages are shown by editing one progress message, the outcome is posted as a new one
+    private CompletionStage<?> deploy(MessageChannel channel, NormalizedTerm term, String language) {
+        AtomicReference<String> deployId = new AtomicReference<>();
+        AtomicReference<String> validator = new AtomicReference<>();
+        ReplyDispatcher.ProgressMessage progress = replies.progress(channel);
+        return deployer.deployAsync(term, false, language, new DeployListener() {
+                    @Override
+                    public void onAccepted(String id, String address) {
+                        deployId.set(id);
+                        validator.set(address);
+                        journal.record(new DeployJournal.Entry(id, term.hash(), channel.getId(), address, DeployStage.ACCEPTED, null));
+                        progress.update("Deploy accepted. Deploy id: " + id);
+                    }
+
+                    @Override
+                    public void onStage(DeployStage stage, String detail) {
+                        // ACCEPTED arrives through onAccepted, PROPOSED is implied by IN_BLOCK
+                        // and FINALIZED is reported with the outcome
+                        if (stage == DeployStage.IN_BLOCK) {
+                            journal.record(new DeployJournal.Entry(deployId.get(), term.hash(), channel.getId(), validator.get(), stage, detail));
+                            progress.update("Deploy %s is in block %s, waiting for finalization.".formatted(deployId.get(), detail));
+                        }
+                    }
+                })
+                .onItemOrFailure().invoke((outcome, failure) -> {
+                    if (failure == null) {
+                        progress.update("Deploy %s finalized in block %s.".formatted(outcome.deployId(), outcome.blockHash()));
+                        replies.reply(channel, "Deployed successfully. Block hash: " + outcome.blockHash());
+                    } else {
+                        if (deployId.get() != null) {
+                            progress.update("Deploy %s failed.".formatted(deployId.get()));
+                        }
+                        replies.reply(channel, "Deployment failed: " + failure.getMessage());
+                    }
+                    if (deployId.get() != null) {
+                        journal.remove(deployId.get());
+                    }
+                })
+                .onFailure().recoverWithNull()
+                .subscribeAsCompletionStage();
+    }
+
+    // like a single deploy, every accepted deploy of the batch is journaled until the summary is posted
+    private CompletionStage<?> deployBatch(MessageChannel channel, List<AttachedFile> files) {
+        List<NormalizedTerm> normalized = files.stream().map(file -> TermNormalizer.normalize(file.content())).toList();
+        List<String> terms = normalized.stream().map(NormalizedTerm::term).toList();
+        Map<String, String> validators = new ConcurrentHashMap<>();
+        ReplyDispatcher.ProgressMessage progress = replies.progress(channel);
+        return deployer.deployBatchAsync(terms, new DeployListener() {
+                    @Override
+                    public void onBatchAccepted(int index, String deployId, String validator) {
+                        validators.put(deployId, validator);
+                        journal.record(new DeployJournal.Entry(deployId, normalized.get(index).hash(), channel.getId(), validator,
+                                DeployStage.ACCEPTED, null));
+                    }
+
+                    @Override
+                    public void onBatchInBlock(int index, String deployId, String blockHash) {
+                        journal.record(new DeployJournal.Entry(deployId, normalized.get(index).hash(), channel.getId(),
+                                validators.get(deployId), DeployStage.IN_BLOCK, blockHash));
+                    }
+
+                    @Override
+                    public void onStage(DeployStage stage, String detail) {
+                        switch (stage) {
+                            case ACCEPTED -> progress.update("Deploys accepted: " + detail + ", proposing them in one block.");
+                            case IN_BLOCK -> progress.update("Deploys are in block " + detail + ", waiting for finalization.");
+                            default -> {
+                            }
+                        }
+                    }
+                })
+                .invoke(outcomes -> replies.reply(channel, batchSummary(files, outcomes)))
+                .onFailure().invoke(failure -> replies.reply(channel, "Batch deployment failed: " + failure.getMessage()))
+                .onTermination().invoke(() -> validators.keySet().forEach(journal::remove))
+                .onFailure().recoverWithNull()
+                .subscribeAsCompletionStage();
+    }
+
+    // one line per file; lines that do not fit into a single message are summarized by a count
+    private static String batchSummary(List<AttachedFile> files, List<BatchDeployOutcome> outcomes) {
+        long deployed = outcomes.stream().filter(BatchDeployOutcome::succeeded).count();
+        StringBuilder summary = new StringBuilder("Batch deploy: %d of %d files finalized.".formatted(deployed, files.size()));
+        for (int i = 0; i < files.size(); i++) {
+            BatchDeployOutcome outcome = outcomes.get(i);
+            String line = outcome.succeeded()
+                    ? "\n[ok] %s in block %s".formatted(files.get(i).name(), outcome.blockHash())
+                    : "\n[failed] %s: %s".formatted(files.get(i).name(), outcome.error());
+            String more = "\n... and %d more".formatted(files.size() - i);
+            if (summary.length() + line.length() + more.length() > SUMMARY_LIMIT) {
+                return summary.append(more).toString();
+            }
+            summary.append(line);
+        }
+        return summary.toString();
+    }
+}
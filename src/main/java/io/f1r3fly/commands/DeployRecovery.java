@@ -0,0 +1,85 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.grcp.DeployJournal;
+import io.f1r3fly.grcp.Deployer;
+import io.f1r3fly.replies.ReplyDispatcher;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resumes the deploys a previous run left in the {@link DeployJournal} and posts their results
+ * to the channels they were requested from.
+ * <p>
+ * Only the journal as it was at startup is considered, so deploys of this run are never taken for leftovers.
+ * Every deploy is resumed by the first shard whose cache holds its channel.
+ */
+@Component
+public class DeployRecovery {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeployRecovery.class);
+
+    private final Deployer deployer;
+    private final DeployJournal journal;
+    private final ReplyDispatcher replies;
+    private final List<DeployJournal.Entry> leftovers;
+    private final Set<String> claimed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    @Autowired
+    public DeployRecovery(Deployer deployer, DeployJournal journal, ReplyDispatcher replies) {
+        this.deployer = deployer;
+        this.journal = journal;
+        this.replies = replies;
+        this.leftovers = journal.unfinished();
+    }
+
+    /**
+     * Resumes the unfinished deploys whose channel belongs to {@code shard}.
+     */
+    public void resumeOn(JDA shard) {
+        for (DeployJournal.Entry entry : leftovers) {
+            MessageChannel channel = shard.getTextChannelById(entry.channelId());
+            if (channel != null && claimed.add(entry.deployId())) {
+                LOGGER.info("Resuming unfinished deploy {}", entry.deployId());
+                resume(channel, entry);
+            }
+        }
+    }
+
+    /**
+     * Drops the deploys no shard could resolve a channel for; called once every shard of this process is ready.
+     */
+    public void dropUnreachable() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        for (DeployJournal.Entry entry : leftovers) {
+            if (claimed.add(entry.deployId())) {
+                // direct messages are not cached after a restart, and the channel may have been deleted meanwhile
+                LOGGER.warn("Dropping unfinished deploy {}: channel {} is not reachable", entry.deployId(), entry.channelId());
+                journal.remove(entry.deployId());
+            }
+        }
+    }
+
+    private void resume(MessageChannel channel, DeployJournal.Entry entry) {
+        deployer.resume(entry.deployId(), entry.validator(), entry.blockHash())
+                .subscribe().with(outcome -> {
+                    replies.reply(channel, "Deployed successfully after a restart. Deploy id: %s, block hash: %s"
+                            .formatted(outcome.deployId(), outcome.blockHash()));
+                    journal.remove(entry.deployId());
+                }, failure -> {
+                    replies.reply(channel, "Deployment %s could not be resumed after a restart: %s"
+                            .formatted(entry.deployId(), failure.getMessage()));
+                    journal.remove(entry.deployId());
+                });
+    }
+}
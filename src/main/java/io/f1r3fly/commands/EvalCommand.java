@@ -0,0 +1,96 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.grcp.Deployer;
+import io.f1r3fly.grcp.TermNormalizer;
+import io.f1r3fly.replies.ReplyDispatcher;
+import io.f1r3fly.replies.ResultPager;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+@Component
+@Order(2)
+public class EvalCommand implements CommandHandler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvalCommand.class);
+
+    private final Deployer deployer;
+    private final AttachmentLoader attachmentLoader;
+    private final ResultPager resultPager;
+    private final ReplyDispatcher replies;
+    private final boolean evalSessionPerUser;
+
+    @Autowired
+    public EvalCommand(Deployer deployer, AttachmentLoader attachmentLoader, ResultPager resultPager, ReplyDispatcher replies,
+                       @Value("${eval.session.scope:channel}") String evalSessionScope) {
+        this.deployer = deployer;
+        this.attachmentLoader = attachmentLoader;
+        this.resultPager = resultPager;
+        this.replies = replies;
+        this.evalSessionPerUser = "user".equalsIgnoreCase(evalSessionScope);
+    }
+
+    @Override
+    public String name() {
+        return "eval";
+    }
+
+    @Override
+    public List<String> usage() {
+        return List.of("!eval inline rholang-code", "!eval -f fileName");
+    }
+
+    @Override
+    public CompletionStage<?> handle(MessageReceivedEvent event, ParsedCommand command) {
+        MessageChannel channel = event.getChannel();
+        if (Deployer.METTA_LANGUAGE.equals(command.language())) {
+            replies.reply(channel, "MeTTa evaluation is not supported yet.");
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String sessionKey = evalSessionKey(event);
+        if (command.hasFile()) {
+            LOGGER.info("Evaluating code from file.");
+            return attachmentLoader.load(event.getMessage(), command.fileName())
+                    .thenCompose(fileContent -> eval(channel, sessionKey, TermNormalizer.normalize(fileContent).term()))
+                    .exceptionally(throwable -> {
+                        replies.reply(channel, AttachmentLoader.failureMessage(throwable));
+                        return null;
+                    });
+        }
+
+        String term = TermNormalizer.normalize(command.argument()).term();
+        if (term.isEmpty()) {
+            replies.reply(channel, "Please provide the Rholang code to evaluate.");
+            return CompletableFuture.completedFuture(null);
+        }
+        LOGGER.info("Evaluating code");
+        return eval(channel, sessionKey, term);
+    }
+
+    private CompletionStage<?> eval(MessageChannel channel, String sessionKey, String rholangCode) {
+        return deployer.eval(sessionKey, rholangCode)
+                .onItemOrFailure().invoke((result, failure) -> {
+                    if (failure == null) {
+                        LOGGER.info("Eval result: {} new storage entries", result.storageEntries().size());
+                        resultPager.deliver(channel, "Eval result: ", result);
+                    } else {
+                        replies.reply(channel, "Eval failed: " + failure.getMessage());
+                    }
+                })
+                .onFailure().recoverWithNull()
+                .subscribeAsCompletionStage();
+    }
+
+    private String evalSessionKey(MessageReceivedEvent event) {
+        return evalSessionPerUser ? "user:" + event.getAuthor().getId() : "channel:" + event.getChannel().getId();
+    }
+}
@@ -0,0 +1,41 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.replies.ReplyDispatcher;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+@Component
+public class HelpCommand implements CommandHandler {
+    public static final String NAME = "help";
+
+    // resolved lazily: the router depends on this handler, and this handler lists all the others
+    private final ObjectProvider<CommandHandler> handlers;
+    private final ReplyDispatcher replies;
+
+    @Autowired
+    public HelpCommand(ObjectProvider<CommandHandler> handlers, ReplyDispatcher replies) {
+        this.handlers = handlers;
+        this.replies = replies;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletionStage<?> handle(MessageReceivedEvent event, ParsedCommand command) {
+        String usage = handlers.orderedStream()
+                .flatMap(handler -> handler.usage().stream())
+                .map(line -> "\n" + line + ";")
+                .collect(Collectors.joining(" "));
+        replies.reply(event.getChannel(), "Commands: " + usage);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,38 @@
+package io.f1r3fly.commands;
+
+import io.f1r3fly.replies.ResultPager;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+@Component
+@Order(3)
+public class MoreCommand implements CommandHandler {
+    private final ResultPager resultPager;
+
+    @Autowired
+    public MoreCommand(ResultPager resultPager) {
+        this.resultPager = resultPager;
+    }
+
+    @Override
+    public String name() {
+        return "more";
+    }
+
+    @Override
+    public List<String> usage() {
+        return List.of("!more (next page of a long result)");
+    }
+
+    @Override
+    public CompletionStage<?> handle(MessageReceivedEvent event, ParsedCommand command) {
+        resultPager.more(event.getChannel());
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,24 @@
+package io.f1r3fly.commands;
+
+import java.util.Locale;
+
+/**
+ * @param name     lower-case command name without the prefix, e.g. {@code deploy}
+ * @param fileName attachment named by {@code -f}, or {@code null}
+ * @param language language named by {@code -l}, {@link io.f1r3fly.grcp.Deployer#RHOLANG} by default
+ * @param argument everything after the flags, trimmed
+ */
+public record ParsedCommand(String name, String fileName, String language, String argument) {
+    public static final String ALL_FILES = "*";
+
+    public boolean hasFile() {
+        return fileName != null;
+    }
+
+    /**
+     * {@code -f *} or {@code -f something.zip}: the command applies to several files at once.
+     */
+    public boolean isBatch() {
+        return ALL_FILES.equals(fileName) || (fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".zip"));
+    }
+}
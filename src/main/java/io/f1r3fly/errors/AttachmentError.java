@@ -0,0 +1,14 @@
+package io.f1r3fly.errors;
+
+/**
+ * A command attachment could not be found or read. The message is meant to be shown to the user as is.
+ */
+public class AttachmentError extends RuntimeException {
+    public AttachmentError(String message) {
+        super(message);
+    }
+
+    public AttachmentError(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package io.f1r3fly.errors;
+
+/**
+ * A malformed bot command. The message is meant to be shown to the user as is.
+ */
+public class CommandSyntaxError extends F1r3flyError {
+    public CommandSyntaxError(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package io.f1r3fly.grcp;
+
+/**
+ * Status of one term of a batch deploy. {@code deployId} and {@code blockHash} are set as far as the term got;
+ * {@code error} is set if it failed.
+ */
+public record BatchDeployOutcome(String deployId, String blockHash, String error) {
+
+    static BatchDeployOutcome accepted(String deployId) {
+        return new BatchDeployOutcome(deployId, null, null);
+    }
+
+    static BatchDeployOutcome rejected(Throwable failure) {
+        return new BatchDeployOutcome(null, null, failure.getMessage());
+    }
+
+    BatchDeployOutcome inBlock(String blockHash) {
+        return new BatchDeployOutcome(deployId, blockHash, null);
+    }
+
+    BatchDeployOutcome failed(Throwable failure) {
+        return new BatchDeployOutcome(deployId, blockHash, failure.getMessage());
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
@@ -0,0 +1,127 @@
+package io.f1r3fly.grcp;
+
+import fr.acinq.secp256k1.Hex;
+import io.smallrye.mutiny.Uni;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of deploy outcomes, keyed by the Blake2b-256 hash of term, phlo limit and shard.
+ * <p>
+ * Deploys are signed with timestamp 0, so identical submissions produce the identical signed deploy and
+ * sending it again cannot produce a different block. Concurrent identical submissions share one in-flight deploy,
+ * and finalized outcomes are answered from an LRU map bounded by size and age.
+ * Failures are never cached.
+ */
+public class DeployCache {
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(DeploySigner::newBlake2b256);
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<String, Uni<DeployOutcome>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedOutcome> finalized;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DeployCache(int maxSize, java.time.Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.finalized = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedOutcome> eldest) {
+                return size() > DeployCache.this.maxSize;
+            }
+        };
+    }
+
+    public static String key(String term, long phloLimit, String shardId) {
+        MessageDigest digest = DIGEST.get();
+        digest.update(term.getBytes(StandardCharsets.UTF_8));
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(phloLimit).array());
+        digest.update(shardId.getBytes(StandardCharsets.UTF_8));
+        return Hex.encode(digest.digest());
+    }
+
+    /**
+     * Returns the cached outcome for {@code key}, joins an identical deploy already in flight,
+     * or starts {@code deploy} and shares it with everyone asking for the same key until it terminates.
+     */
+    public Uni<DeployOutcome> getOrDeploy(String key, Supplier<Uni<DeployOutcome>> deploy) {
+        return Uni.createFrom().deferred(() -> {
+            DeployOutcome cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                return Uni.createFrom().item(cached);
+            }
+
+            Uni<DeployOutcome> existing = inFlight.get(key);
+            if (existing != null) {
+                hits.increment();
+                return existing;
+            }
+
+            Uni<DeployOutcome> shared = deploy.get()
+                    .invoke(outcome -> store(key, outcome))
+                    .onTermination().invoke(() -> inFlight.remove(key))
+                    .memoize().indefinitely();
+            existing = inFlight.putIfAbsent(key, shared);
+            if (existing != null) {
+                hits.increment();
+                return existing;
+            }
+            misses.increment();
+            return shared;
+        });
+    }
+
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        synchronized (finalized) {
+            return finalized.size();
+        }
+    }
+
+    private DeployOutcome lookup(String key) {
+        synchronized (finalized) {
+            CachedOutcome cached = finalized.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (System.nanoTime() - cached.storedAt > ttlNanos) {
+                finalized.remove(key);
+                return null;
+            }
+            return cached.outcome;
+        }
+    }
+
+    private void store(String key, DeployOutcome outcome) {
+        synchronized (finalized) {
+            finalized.put(key, new CachedOutcome(outcome, System.nanoTime()));
+        }
+    }
+
+    private record CachedOutcome(DeployOutcome outcome, long storedAt) {
+    }
+}
@@ -0,0 +1,306 @@
+package io.f1r3fly.grcp;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of deploys that have been accepted by a node but whose result has not been posted yet,
+ * so a restarted bot can pick up tracking where it stopped (see {@code DeployRecovery}).
+ * <p>
+ * The file is memory-mapped. Every record is {@code [int length][int crc32][payload]} and holds either the full
+ * current state of one deploy or its removal, so replay keeps the last record per deploy id. Replay stops at the
+ * first torn or zeroed record. Appends only copy into the mapping; a flusher forces dirty pages to disk every
+ * {@code journal.fsync.interval.ms}, so a crash loses at most that window. When the file is full, and periodically,
+ * it is compacted by rewriting only the live entries and atomically replacing the old file.
+ */
+@Component
+public class DeployJournal {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeployJournal.class);
+
+    private static final int MAGIC = 0x46314a52; // "F1JR"
+    private static final int VERSION = 2;
+    // version 1 had no validator address; its files are replayed and rewritten as version 2
+    private static final int VERSION_WITHOUT_VALIDATOR = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    /**
+     * @param validator address of the validator that accepted the deploy, {@code null} if the journal predates it
+     * @param blockHash {@code null} until the deploy is in a block
+     */
+    public record Entry(String deployId, long termHash, String channelId, String validator, DeployStage stage, String blockHash) {
+    }
+
+    @Value("${journal.path:data/deploys.journal}")
+    private String journalPath;
+
+    @Value("${journal.capacity.bytes:4194304}")
+    private int initialCapacity;
+
+    @Value("${journal.fsync.interval.ms:50}")
+    private long fsyncIntervalMs;
+
+    @Value("${journal.compaction.interval.ms:600000}")
+    private long compactionIntervalMs;
+
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("deploy-journal-"));
+    private final Map<String, Entry> live = new LinkedHashMap<>();
+    private Path path;
+    private MappedByteBuffer buffer;
+    private boolean dirty;
+    private int deadRecords;
+
+    @PostConstruct
+    public void init() throws IOException {
+        path = Path.of(journalPath);
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        boolean exists = Files.exists(path) && Files.size(path) >= HEADER_BYTES;
+        buffer = map(path, Math.max(initialCapacity, exists ? (int) Files.size(path) : 0));
+        int version = exists && buffer.getInt(0) == MAGIC ? buffer.getInt(4) : 0;
+        if (version == VERSION) {
+            replay(version);
+        } else if (version == VERSION_WITHOUT_VALIDATOR) {
+            replay(version);
+            rewrite(buffer.capacity());
+        } else {
+            buffer.putInt(0, MAGIC).putInt(4, VERSION).position(HEADER_BYTES);
+        }
+        LOGGER.info("Deploy journal {} holds {} unfinished deploys", path, live.size());
+
+        maintenance.scheduleWithFixedDelay(this::flush, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Deploy journal compaction failed", e);
+            }
+        }, compactionIntervalMs, compactionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Records the current state of a deploy, replacing whatever was recorded for it before.
+     */
+    public synchronized void record(Entry entry) {
+        if (live.put(entry.deployId(), entry) != null) {
+            deadRecords++;
+        }
+        append(encode(entry));
+    }
+
+    /**
+     * Forgets a deploy once its result has been delivered.
+     */
+    public synchronized void remove(String deployId) {
+        if (live.remove(deployId) == null) {
+            return;
+        }
+        deadRecords += 2;
+        append(encodeRemoval(deployId));
+    }
+
+    public synchronized List<Entry> unfinished() {
+        return new ArrayList<>(live.values());
+    }
+
+    /**
+     * Rewrites the file with only the unfinished deploys.
+     */
+    public synchronized void compact() {
+        if (deadRecords == 0) {
+            return;
+        }
+        rewrite(buffer.capacity());
+    }
+
+    private void append(byte[] payload) {
+        int needed = RECORD_HEADER_BYTES + payload.length;
+        if (buffer.remaining() < needed) {
+            // compacting usually frees enough; otherwise the file grows
+            int liveBytes = live.values().stream().mapToInt(entry -> RECORD_HEADER_BYTES + encode(entry).length).sum();
+            int capacity = buffer.capacity();
+            while (HEADER_BYTES + liveBytes + needed > capacity / 2) {
+                capacity *= 2;
+            }
+            rewrite(capacity);
+        }
+        writeRecord(buffer, payload);
+        dirty = true;
+    }
+
+    private void flush() {
+        MappedByteBuffer dirtyBuffer;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirtyBuffer = buffer;
+            dirty = false;
+        }
+        // outside the lock, so appends are not held up by the msync; a compaction meanwhile forces its own file
+        dirtyBuffer.force();
+    }
+
+    private void rewrite(int capacity) {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.deleteIfExists(tmp);
+            MappedByteBuffer compacted = map(tmp, capacity);
+            compacted.putInt(0, MAGIC).putInt(4, VERSION).position(HEADER_BYTES);
+            for (Entry entry : live.values()) {
+                writeRecord(compacted, encode(entry));
+            }
+            compacted.force();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            buffer = compacted;
+            dirty = false;
+            deadRecords = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact the deploy journal " + path, e);
+        }
+    }
+
+    private void replay(int version) {
+        buffer.position(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                LOGGER.warn("Deploy journal {} has a torn record at offset {}, ignoring the rest", path, start);
+                buffer.position(start);
+                break;
+            }
+            decode(payload, version);
+        }
+        // anything after the last good record is garbage from a torn write; clear it so it cannot be misread later
+        for (int i = buffer.position(); i < buffer.capacity() && buffer.get(i) != 0; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    private void decode(byte[] payload, int version) {
+        Reader reader = new Reader(payload);
+        byte type = reader.readByte();
+        String deployId = reader.readString();
+        if (type == REMOVE) {
+            live.remove(deployId);
+            deadRecords += 2;
+            return;
+        }
+        long termHash = reader.readLong();
+        String channelId = reader.readString();
+        String validator = version == VERSION_WITHOUT_VALIDATOR ? "" : reader.readString();
+        DeployStage stage = DeployStage.values()[reader.readByte()];
+        String blockHash = reader.readString();
+        Entry entry = new Entry(deployId, termHash, channelId, validator.isEmpty() ? null : validator, stage,
+                blockHash.isEmpty() ? null : blockHash);
+        if (live.put(deployId, entry) != null) {
+            deadRecords++;
+        }
+    }
+
+    private static void writeRecord(MappedByteBuffer target, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (target.remaining() < RECORD_HEADER_BYTES + payload.length) {
+            throw new BufferOverflowException();
+        }
+        // the length goes in last, so a torn write leaves a zero length that replay stops at
+        int start = target.position();
+        target.position(start + 4);
+        target.putInt((int) crc.getValue());
+        target.put(payload);
+        target.putInt(start, payload.length);
+    }
+
+    private static byte[] encode(Entry entry) {
+        byte[] deployId = entry.deployId().getBytes(StandardCharsets.UTF_8);
+        byte[] channelId = entry.channelId().getBytes(StandardCharsets.UTF_8);
+        byte[] validator = entry.validator() == null ? new byte[0] : entry.validator().getBytes(StandardCharsets.UTF_8);
+        byte[] blockHash = entry.blockHash() == null ? new byte[0] : entry.blockHash().getBytes(StandardCharsets.UTF_8);
+        java.nio.ByteBuffer payload = java.nio.ByteBuffer.allocate(1 + 2 + deployId.length + 8 + 2 + channelId.length + 2 + validator.length + 1 + 2 + blockHash.length);
+        payload.put(PUT);
+        payload.putShort((short) deployId.length).put(deployId);
+        payload.putLong(entry.termHash());
+        payload.putShort((short) channelId.length).put(channelId);
+        payload.putShort((short) validator.length).put(validator);
+        payload.put((byte) entry.stage().ordinal());
+        payload.putShort((short) blockHash.length).put(blockHash);
+        return payload.array();
+    }
+
+    private static byte[] encodeRemoval(String deployId) {
+        byte[] id = deployId.getBytes(StandardCharsets.UTF_8);
+        return java.nio.ByteBuffer.allocate(1 + 2 + id.length).put(REMOVE).putShort((short) id.length).put(id).array();
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    private static final class Reader {
+        private final java.nio.ByteBuffer payload;
+
+        Reader(byte[] payload) {
+            this.payload = java.nio.ByteBuffer.wrap(payload);
+        }
+
+        byte readByte() {
+            return payload.get();
+        }
+
+        long readLong() {
+            return payload.getLong();
+        }
+
+        String readString() {
+            byte[] bytes = new byte[Short.toUnsignedInt(payload.getShort())];
+            payload.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
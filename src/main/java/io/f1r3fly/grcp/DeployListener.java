@@ -0,0 +1,37 @@
+package io.f1r3fly.grcp;
+
+/**
+ * Receives progress of an asynchronous deploy. Called from the deployer pool, so implementations must not block.
+ */
+@FunctionalInterface
+public interface DeployListener {
+    DeployListener NONE = (stage, detail) -> {
+    };
+
+    /**
+     * @param detail deploy id for {@link DeployStage#ACCEPTED} and {@link DeployStage#PROPOSED}, block hash otherwise
+     */
+    void onStage(DeployStage stage, String detail);
+
+    /**
+     * Reports {@link DeployStage#ACCEPTED} together with the address of the validator that accepted the deploy,
+     * the only node whose pool holds it until it is in a block.
+     */
+    default void onAccepted(String deployId, String validator) {
+        onStage(DeployStage.ACCEPTED, deployId);
+    }
+
+    /**
+     * Reports that the term at {@code index} of a batch was accepted by {@code validator}, before the
+     * {@link DeployStage#ACCEPTED} count of the whole batch.
+     */
+    default void onBatchAccepted(int index, String deployId, String validator) {
+    }
+
+    /**
+     * Reports the block the term at {@code index} of a batch landed in, before {@link DeployStage#IN_BLOCK}
+     * lists the blocks of the whole batch.
+     */
+    default void onBatchInBlock(int index, String deployId, String blockHash) {
+    }
+}
@@ -0,0 +1,4 @@
+package io.f1r3fly.grcp;
+
+public record DeployOutcome(String deployId, String blockHash) {
+}
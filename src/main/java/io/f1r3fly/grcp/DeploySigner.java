@@ -0,0 +1,89 @@
+package io.f1r3fly.grcp;
+
+import casper.CasperMessage;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import com.rfksystems.blake2b.Blake2b;
+import com.rfksystems.blake2b.security.Blake2bProvider;
+import fr.acinq.secp256k1.Secp256k1;
+import io.f1r3fly.errors.Blake2Exception;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+
+/**
+ * Signs deploys with a fixed key. Everything that does not depend on the deploy itself
+ * (public key, secp256k1 context, Blake2b digest per thread) is set up once, on first use,
+ * so loading the native secp256k1 library does not delay startup.
+ */
+public class DeploySigner {
+    public static final String SIG_ALGORITHM = "secp256k1";
+
+    private static final Provider BLAKE2B_PROVIDER = new Blake2bProvider();
+
+    private final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(DeploySigner::newBlake2b256);
+    private final byte[] signingKey;
+    private volatile Keys keys;
+
+    public DeploySigner(byte[] signingKey) {
+        this.signingKey = signingKey.clone();
+    }
+
+    public ByteString publicKey() {
+        return keys().publicKey();
+    }
+
+    /**
+     * Hashes the unsigned deploy and returns it with signature and deployer set.
+     * A deploy that already carries signature fields has them cleared first, so re-signing is idempotent.
+     */
+    public CasperMessage.DeployDataProto sign(CasperMessage.DeployDataProto deploy) {
+        CasperMessage.DeployDataProto unsigned = isUnsigned(deploy) ? deploy : deploy.toBuilder()
+                .clearSigAlgorithm()
+                .clearSig()
+                .clearDeployer()
+                .build();
+
+        // digest() resets the instance, so it is ready for the next deploy on this thread
+        byte[] hashed = digest.get().digest(unsigned.toByteArray());
+        Keys keys = keys();
+        byte[] signature = keys.secp256k1().compact2der(keys.secp256k1().sign(hashed, signingKey));
+
+        return unsigned.toBuilder()
+                .setSigAlgorithm(SIG_ALGORITHM)
+                .setSig(UnsafeByteOperations.unsafeWrap(signature))
+                .setDeployer(keys.publicKey())
+                .build();
+    }
+
+    private Keys keys() {
+        Keys current = keys;
+        if (current == null) {
+            synchronized (this) {
+                current = keys;
+                if (current == null) {
+                    Secp256k1 secp256k1 = Secp256k1.get();
+                    current = new Keys(secp256k1, UnsafeByteOperations.unsafeWrap(secp256k1.pubkeyCreate(signingKey)));
+                    keys = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private record Keys(Secp256k1 secp256k1, ByteString publicKey) {
+    }
+
+    private static boolean isUnsigned(CasperMessage.DeployDataProto deploy) {
+        return deploy.getSig().isEmpty() && deploy.getDeployer().isEmpty() && deploy.getSigAlgorithm().isEmpty();
+    }
+
+    static MessageDigest newBlake2b256() {
+        try {
+            return MessageDigest.getInstance(Blake2b.BLAKE2_B_256, BLAKE2B_PROVIDER);
+        } catch (NoSuchAlgorithmException e) {
+            throw new Blake2Exception("Can't load MessageDigest instance (BLAKE2_B_256)", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package io.f1r3fly.grcp;
+
+public enum DeployStage {
+    ACCEPTED,
+    PROPOSED,
+    IN_BLOCK,
+    FINALIZED
+}
@@ -1,41 +1,46 @@
 package io.f1r3fly.grcp;
 
 import casper.CasperMessage;
-import casper.ProposeServiceCommon;
 import casper.DeployServiceCommon;
-import casper.v1.DeployServiceGrpc;
-import casper.v1.ProposeServiceGrpc;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.ProtocolStringList;
-import com.rfksystems.blake2b.Blake2b;
-import com.rfksystems.blake2b.security.Blake2bProvider;
 import fr.acinq.secp256k1.Hex;
-import fr.acinq.secp256k1.Secp256k1;
-import io.f1r3fly.errors.Blake2Exception;
 import io.f1r3fly.errors.F1r3flyDeployError;
-import io.grpc.ManagedChannel;
-import io.grpc.ManagedChannelBuilder;
+import io.f1r3fly.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.mutiny.Uni;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import repl.ReplGrpc;
 import repl.ReplOuterClass;
 import servicemodelapi.ServiceErrorOuterClass;
 
-import javax.annotation.PostConstruct;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.security.Security;
 import java.time.Duration;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.f1r3fly.metrics.PipelineMetrics.BATCH;
+import static io.f1r3fly.metrics.PipelineMetrics.DEPLOY;
+import static io.f1r3fly.metrics.PipelineMetrics.EVAL;
 
 
 @Component
@@ -47,177 +52,430 @@ public class Deployer {
     @Value("${rholang.signing.key}")
     private String signingKeyHex;
 
-    @Value("${grpc.node.host}")
-    private String nodeHost;
+    @Value("${propose.batch.window.ms:200}")
+    private long proposeBatchWindowMs;
+
+    @Value("${propose.batch.max.size:32}")
+    private int proposeBatchMaxSize;
+
+    @Value("${finalization.poll.interval.ms:2000}")
+    private long finalizationPollIntervalMs;
+
+    @Value("${finalization.timeout.ms:600000}")
+    private long finalizationTimeoutMs;
+
+    @Value("${eval.session.idle.ms:1800000}")
+    private long evalSessionIdleMs;
+
+    // evals on a node run one at a time, so one that hangs must not hold up the node forever
+    @Value("${eval.timeout.ms:120000}")
+    private long evalTimeoutMs;
+
+    @Value("${deploy.cache.size:1024}")
+    private int deployCacheSize;
 
-    @Value("${grpc.node.port}")
-    private int grpcPort;
+    @Value("${deploy.cache.ttl.ms:3600000}")
+    private long deployCacheTtlMs;
+
+    @Value("${deploy.preflight.enabled:false}")
+    private boolean preflightEnabled;
+
+    @Value("${deploy.preflight.margin:1.5}")
+    private double preflightMargin;
+
+    @Value("${deploy.preflight.cache.size:4096}")
+    private int preflightCacheSize;
+
+    // REPL evals are not capped by a phlo limit, so a term that never terminates would hold the deploy forever
+    @Value("${deploy.preflight.timeout.ms:10000}")
+    private long preflightTimeoutMs;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Deployer.class);
 
-    private static final Duration INIT_DELAY = Duration.ofSeconds(2);
-    private static final Duration MAX_DELAY = Duration.ofSeconds(100);
-    private static final int RETRIES = 10;
-    private static final int MAX_MESSAGE_SIZE = Integer.MAX_VALUE; // ~2 GB
+    private static final String SHARD_ID = "root";
 
-    private byte[] signingKey;
-    private DeployServiceGrpc.DeployServiceFutureStub deployService;
-    private ProposeServiceGrpc.ProposeServiceFutureStub proposeService;
-    private ReplGrpc.ReplFutureStub replService;
+    private static final Duration FIND_DEPLOY_INIT_DELAY = Duration.ofMillis(500);
+    private static final Duration FIND_DEPLOY_MAX_DELAY = Duration.ofSeconds(5);
+    private static final int FIND_DEPLOY_RETRIES = 5;
+    private static final long DEFAULT_PHLO_LIMIT = 50_000L;
+    private static final long BIG_PHLO_LIMIT = 5_000_000_000L;
+    private static final String NO_NEW_DEPLOYS = "NoNewDeploys";
 
-    private String previousResult = "";
-    private String currentResult = "";;
+    private final NodePool nodePool;
+    private final PipelineMetrics metrics;
+    private final Map<NodeClient, ProposeCoalescer> proposeCoalescers = new HashMap<>();
+    private final Map<Long, Uni<Long>> preflightsInFlight = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private DeploySigner signer;
+    private FinalizationTracker finalizationTracker;
 
+    private EvalSessions evalSessions;
+    private DeployCache deployCache;
+    private PhloEstimator phloEstimator;
+
+
+    @Autowired
+    public Deployer(NodePool nodePool, PipelineMetrics metrics) {
+        this.nodePool = nodePool;
+        this.metrics = metrics;
+    }
 
+    // jakarta.annotation, not javax: Spring 6.0 ignores the javax lifecycle annotations, so init() would never run
     @PostConstruct
     public void init() {
-        Security.addProvider(new Blake2bProvider());
-
-        this.signingKey = Hex.decode(signingKeyHex);
-        ManagedChannel channel = ManagedChannelBuilder.forAddress(nodeHost, grpcPort).usePlaintext().build();
-
-        this.deployService = DeployServiceGrpc.newFutureStub(channel)
-                .withMaxInboundMessageSize(MAX_MESSAGE_SIZE)
-                .withMaxOutboundMessageSize(MAX_MESSAGE_SIZE);
-        this.proposeService = ProposeServiceGrpc.newFutureStub(channel)
-                .withMaxInboundMessageSize(MAX_MESSAGE_SIZE)
-                .withMaxOutboundMessageSize(MAX_MESSAGE_SIZE);
-        this.replService = ReplGrpc.newFutureStub(channel)
-                .withMaxInboundMessageSize(MAX_MESSAGE_SIZE)
-                .withMaxOutboundMessageSize(MAX_MESSAGE_SIZE);
+        this.signer = new DeploySigner(Hex.decode(signingKeyHex));
+        this.executor = nodePool.executor();
+
+        // a deploy only lives in the pool of the validator it was sent to, so that validator has to propose it
+        for (NodeClient validator : nodePool.validators()) {
+            proposeCoalescers.put(validator, new ProposeCoalescer(validator::proposeService, executor,
+                    Duration.ofMillis(proposeBatchWindowMs), proposeBatchMaxSize));
+        }
+        this.finalizationTracker = new FinalizationTracker(() -> nodePool.reader().deployService(), executor,
+                Duration.ofMillis(finalizationPollIntervalMs), Duration.ofMillis(finalizationTimeoutMs));
+        this.evalSessions = new EvalSessions(Duration.ofMillis(evalSessionIdleMs));
+        this.deployCache = new DeployCache(deployCacheSize, Duration.ofMillis(deployCacheTtlMs));
+        if (preflightEnabled) {
+            this.phloEstimator = new PhloEstimator(preflightMargin, DEFAULT_PHLO_LIMIT, BIG_PHLO_LIMIT, preflightCacheSize);
+        }
+
+        MeterRegistry registry = metrics.registry();
+        registry.gauge("f1r3bot.finalization.pending.blocks", finalizationTracker, FinalizationTracker::pendingBlocks);
+        registry.gauge("f1r3bot.finalization.pending.deploys", finalizationTracker, FinalizationTracker::pendingDeploys);
+        registry.gauge("f1r3bot.propose.pending", proposeCoalescers,
+                coalescers -> coalescers.values().stream().mapToInt(ProposeCoalescer::pendingCount).sum());
+        registry.gauge("f1r3bot.eval.sessions", evalSessions, EvalSessions::size);
+        registry.gauge("f1r3bot.deploy.cache.hit.ratio", deployCache, DeployCache::hitRate);
+        if (phloEstimator != null) {
+            registry.gauge("f1r3bot.phlo.estimate.cache.hit.ratio", phloEstimator, PhloEstimator::hitRate);
+        }
     }
 
-    public String deploy(String rhoCode, boolean useBiggerRhloPrice, String language) throws F1r3flyDeployError {
-        try {
+    @PreDestroy
+    public void shutdown() {
+        proposeCoalescers.values().forEach(ProposeCoalescer::shutdown);
+        finalizationTracker.shutdown();
+        evalSessions.shutdown();
+    }
 
-            int maxRholangInLogs = 2000;
-            LOGGER.debug("Rholang code {}", rhoCode.length() > maxRholangInLogs ? rhoCode.substring(0, maxRholangInLogs) : rhoCode);
-
-            long phloLimit = useBiggerRhloPrice ? 5_000_000_000L : 50_000L;
-
-            // Make deployment
-            CasperMessage.DeployDataProto deployment = CasperMessage.DeployDataProto.newBuilder()
-                    .setTerm(rhoCode)
-                    .setTimestamp(0)
-                    .setPhloPrice(1)
-                    .setPhloLimit(phloLimit)
-                    .setShardId("root")
-                    //.setLanguage(language)
-                    .build();
-
-            // Sign deployment
-            CasperMessage.DeployDataProto signed = signDeploy(deployment);
-
-
-            // Deploy
-            Uni<String> deployVolumeContract =
-                    Uni.createFrom().future(deployService.doDeploy(signed))
-                            .flatMap(deployResponse -> {
-//                        LOGGER.trace("Deploy Response {}", deployResponse);
-                                if (deployResponse.hasError()) {
-                                    return this.<String>fail(rhoCode, deployResponse.getError());
-                                } else {
-                                    return succeed(deployResponse.getResult());
-                                }
-                            })
-                            .flatMap(deployResult -> {
-                                String deployId = deployResult.substring(deployResult.indexOf("DeployId is: ") + 13, deployResult.length());
-                                return Uni.createFrom().future(proposeService.propose(ProposeServiceCommon.ProposeQuery.newBuilder().setIsAsync(false).build()))
-                                        .flatMap(proposeResponse -> {
-                                            LOGGER.info("Propose Response {}", proposeResponse);
-                                            if (proposeResponse.hasError()) {
-                                                LOGGER.info("Propose failed: {}", proposeResponse.getError());
-                                                return this.<String>fail(rhoCode, proposeResponse.getError());
-                                            } else {
-                                                LOGGER.info("Propose succed: {}", proposeResponse.getError());
-                                                return succeed(deployId);
-                                            }
-                                        });
-                            })
-                            .flatMap(deployId -> {
-                                LOGGER.info("deployId: {}", deployId);
-                                ByteString b64 = ByteString.copyFrom(Hex.decode(deployId));
-                                LOGGER.info("b64: {}", b64);
-                                return Uni.createFrom().future(deployService.findDeploy(DeployServiceCommon.FindDeployQuery.newBuilder().setDeployId(b64).build()))
-                                        .flatMap(findResponse -> {
-                                            LOGGER.debug("Find Response {}", findResponse);
-                                            if (findResponse.hasError()) {
-                                                return this.<String>fail(rhoCode, findResponse.getError());
-                                            } else {
-                                                return succeed(findResponse.getBlockInfo().getBlockHash());
-                                            }
-                                        });
-                            })
-                            .flatMap(blockHash -> {
-                                LOGGER.debug("Block Hash {}", blockHash);
-                                return Uni.createFrom().future(deployService.isFinalized(DeployServiceCommon.IsFinalizedQuery.newBuilder().setHash(blockHash).build()))
-                                        .flatMap(isFinalizedResponse -> {
-                                            LOGGER.debug("isFinalizedResponse {}", isFinalizedResponse);
-                                            if (isFinalizedResponse.hasError() || !isFinalizedResponse.getIsFinalized()) {
-                                                return fail(rhoCode, isFinalizedResponse.getError());
-                                            } else {
-                                                return succeed(blockHash);
-                                            }
-                                        })
-                                        .onFailure().retry()
-                                        .withBackOff(INIT_DELAY, MAX_DELAY)
-                                        .atMost(RETRIES);
-                            });
+    /**
+     * Builds the node channels and the signing context ahead of the first command. Commands that arrive
+     * earlier are not blocked by it; whatever is not warm yet is created on their first use instead.
+     */
+    public CompletableFuture<Void> warmUp() {
+        return CompletableFuture.runAsync(() -> {
+            long start = System.nanoTime();
+            nodePool.warmUp();
+            signer.sign(deployData("Nil", DEFAULT_PHLO_LIMIT));
+            LOGGER.info("Backend warmed up in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }, executor);
+    }
 
+    public String deploy(String rhoCode, boolean useBiggerRhloPrice, String language) throws F1r3flyDeployError {
+        try {
             // Drummer Hoff Fired It Off
-            return deployVolumeContract.await().indefinitely();
-        } catch (Exception e) {
-            if (e instanceof F1r3flyDeployError) {
-                throw (F1r3flyDeployError) e;
-            } else {
-                LOGGER.warn("failed to deploy Rho {}", rhoCode, e);
-                throw new F1r3flyDeployError(rhoCode, "Failed to deploy", e);
+            NormalizedTerm term = TermNormalizer.normalize(rhoCode);
+            return deployAsync(term, useBiggerRhloPrice, language, DeployListener.NONE).await().indefinitely().blockHash();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof F1r3flyDeployError) {
+                throw (F1r3flyDeployError) e.getCause();
             }
+            throw new F1r3flyDeployError(rhoCode, "Failed to deploy", e.getCause());
         }
     }
 
-    private CasperMessage.DeployDataProto signDeploy(CasperMessage.DeployDataProto deploy) {
-        final MessageDigest digest;
+    /**
+     * Runs doDeploy, propose, findDeploy and the isFinalized polling without blocking the caller.
+     * Every stage completes on the deployer pool, so many deploys can be in flight at once.
+     * An identical deploy that is already in flight or finalized is answered by {@link DeployCache}
+     * without reaching the node; {@code listener} then only sees progress if this call started the deploy.
+     * With {@code deploy.preflight.enabled} the default phlo limit is replaced by one estimated by {@link #preflight}.
+     */
+    public Uni<DeployOutcome> deployAsync(NormalizedTerm term, boolean useBiggerRhloPrice, String language, DeployListener listener) {
+        String rhoCode = term.term();
+        LOGGER.debug("Rholang code {}", LogPreview.of(rhoCode));
+
+        Uni<Long> phloLimit = useBiggerRhloPrice || phloEstimator == null
+                ? succeed(useBiggerRhloPrice ? BIG_PHLO_LIMIT : DEFAULT_PHLO_LIMIT)
+                : preflight(term);
+        return phloLimit.flatMap(limit -> deployCache.getOrDeploy(DeployCache.key(rhoCode, limit, SHARD_ID),
+                () -> submit(rhoCode, deployData(rhoCode, limit), listener)));
+    }
 
-        try {
-            digest = MessageDigest.getInstance(Blake2b.BLAKE2_B_256);
-        } catch (NoSuchAlgorithmException e) {
-            throw new Blake2Exception("Can't load MessageDigest instance (BLAKE2_B_256)", e);
+    /**
+     * Dry-runs the term on a REPL and derives the phlo limit from the cost it reports.
+     * Any failure, or no answer within {@code deploy.preflight.timeout.ms}, falls back to the default limit,
+     * so the preflight never fails or holds up a deploy by itself.
+     * Identical terms arriving together share one dry run.
+     */
+    private Uni<Long> preflight(NormalizedTerm term) {
+        return Uni.createFrom().deferred(() -> {
+            OptionalLong cached = phloEstimator.cached(term.hash());
+            if (cached.isPresent()) {
+                return succeed(cached.getAsLong());
+            }
+
+            Uni<Long> existing = preflightsInFlight.get(term.hash());
+            if (existing != null) {
+                return existing;
+            }
+
+            Uni<Long> shared = dryRun(term)
+                    .onTermination().invoke(() -> preflightsInFlight.remove(term.hash()))
+                    .memoize().indefinitely();
+            existing = preflightsInFlight.putIfAbsent(term.hash(), shared);
+            return existing != null ? existing : shared;
+        });
+    }
+
+    /**
+     * Runs on the REPL node the term hash pins it to, in turn with the evals there, and the storage the dry run
+     * leaves behind is absorbed so it never shows up in an eval (see {@link EvalSessions#absorb}).
+     */
+    private Uni<Long> dryRun(NormalizedTerm term) {
+        NodeClient node = nodePool.replNode("preflight:" + term.hash());
+        Uni<Long> stage = evalSessions.absorb(node, term.term(), program -> repl(node, program, Duration.ofMillis(preflightTimeoutMs)))
+                .map(output -> phloEstimator.estimate(term.hash(), output).orElse(DEFAULT_PHLO_LIMIT))
+                .onFailure().recoverWithItem(e -> {
+                    LOGGER.warn("Phlo preflight failed, deploying with the default limit", e);
+                    return DEFAULT_PHLO_LIMIT;
+                })
+                .invoke(limit -> LOGGER.debug("Phlo limit {} for term {}", limit, term.hash()));
+        return metrics.timeStage(DEPLOY, "preflight", stage);
+    }
+
+    /**
+     * Deploys all terms with a single propose: they are signed in parallel and sent to one validator,
+     * then one propose packs them into a block whose finalization is awaited once.
+     * A term that fails does not stop the others; the outcomes keep the order of {@code terms}.
+     * Batches bypass {@link DeployCache}. The listener sees ACCEPTED with a count and IN_BLOCK with the block hash.
+     */
+    public Uni<List<BatchDeployOutcome>> deployBatchAsync(List<String> terms, DeployListener listener) {
+        NodeClient validator = nodePool.validator();
+        List<CasperMessage.DeployDataProto> deployments = terms.stream()
+                .map(term -> deployData(term, DEFAULT_PHLO_LIMIT))
+                .toList();
+
+        // one signing task per deploy on the deployer pool, which is sized for this work unlike the common pool
+        Uni<List<BatchDeployOutcome>> pipeline = metrics.timeStage(BATCH, "sign", joinAll(deployments.stream()
+                        .map(deployment -> Uni.createFrom().item(() -> signer.sign(deployment)).runSubscriptionOn(executor))
+                        .toList()))
+                .flatMap(signed -> joinAll(IntStream.range(0, signed.size())
+                        .mapToObj(i -> doDeploy(validator, terms.get(i), signed.get(i))
+                                .map(BatchDeployOutcome::accepted)
+                                .onFailure().recoverWithItem(BatchDeployOutcome::rejected))
+                        .toList()))
+                .invoke(outcomes -> {
+                    for (int i = 0; i < outcomes.size(); i++) {
+                        if (outcomes.get(i).succeeded()) {
+                            listener.onBatchAccepted(i, outcomes.get(i).deployId(), validator.address());
+                        }
+                    }
+                    listener.onStage(DeployStage.ACCEPTED,
+                            outcomes.stream().filter(BatchDeployOutcome::succeeded).count() + " of " + outcomes.size());
+                })
+                .flatMap(outcomes -> proposeBatch(validator, outcomes))
+                .flatMap(outcomes -> joinAll(IntStream.range(0, outcomes.size())
+                        .mapToObj(i -> {
+                            BatchDeployOutcome outcome = outcomes.get(i);
+                            return !outcome.succeeded() ? succeed(outcome) : findBlock(terms.get(i), outcome.deployId())
+                                    .map(outcome::inBlock)
+                                    .onFailure().recoverWithItem(outcome::failed);
+                        })
+                        .toList()))
+                .flatMap(outcomes -> awaitBatchFinalized(outcomes, listener));
+        return metrics.trackInFlight(BATCH, metrics.timeStage(BATCH, "total", pipeline));
+    }
+
+    private Uni<List<BatchDeployOutcome>> proposeBatch(NodeClient validator, List<BatchDeployOutcome> outcomes) {
+        long accepted = outcomes.stream().filter(BatchDeployOutcome::succeeded).count();
+        if (accepted == 0) {
+            return succeed(outcomes);
         }
+        return propose(validator, "batch of " + accepted + " deploys")
+                .replaceWith(outcomes)
+                .onFailure().recoverWithItem(e -> outcomes.stream()
+                        .map(outcome -> outcome.succeeded() ? outcome.failed(e) : outcome)
+                        .toList());
+    }
 
-        final Secp256k1 secp256k1 = Secp256k1.get();
+    // the deploys normally share one block, but each distinct block is awaited exactly once either way
+    private Uni<List<BatchDeployOutcome>> awaitBatchFinalized(List<BatchDeployOutcome> outcomes, DeployListener listener) {
+        List<String> blocks = outcomes.stream()
+                .filter(BatchDeployOutcome::succeeded)
+                .map(BatchDeployOutcome::blockHash)
+                .distinct()
+                .toList();
+        for (int i = 0; i < outcomes.size(); i++) {
+            if (outcomes.get(i).succeeded()) {
+                listener.onBatchInBlock(i, outcomes.get(i).deployId(), outcomes.get(i).blockHash());
+            }
+        }
+        if (!blocks.isEmpty()) {
+            listener.onStage(DeployStage.IN_BLOCK, String.join(", ", blocks));
+        }
+        return joinAll(blocks.stream()
+                .map(blockHash -> awaitFinalized("block " + blockHash, blockHash)
+                        .map(finalized -> (Throwable) null)
+                        .onFailure().recoverWithItem(e -> e))
+                .toList())
+                .map(failures -> {
+                    Map<String, Throwable> failureOfBlock = new HashMap<>();
+                    for (int i = 0; i < blocks.size(); i++) {
+                        if (failures.get(i) != null) {
+                            failureOfBlock.put(blocks.get(i), failures.get(i));
+                        }
+                    }
+                    return outcomes.stream()
+                            .map(outcome -> outcome.succeeded() && failureOfBlock.containsKey(outcome.blockHash())
+                                    ? outcome.failed(failureOfBlock.get(outcome.blockHash()))
+                                    : outcome)
+                            .toList();
+                });
+    }
 
-        CasperMessage.DeployDataProto.Builder builder = CasperMessage.DeployDataProto.newBuilder();
+    private static <T> Uni<List<T>> joinAll(List<Uni<T>> unis) {
+        return unis.isEmpty() ? Uni.createFrom().item(List.of()) : Uni.join().all(unis).andFailFast();
+    }
 
-        builder
-                .setTerm(deploy.getTerm())
-                .setTimestamp(deploy.getTimestamp())
-                .setPhloPrice(deploy.getPhloPrice())
-                .setPhloLimit(deploy.getPhloLimit())
-                .setValidAfterBlockNumber(deploy.getValidAfterBlockNumber())
-                .setShardId(deploy.getShardId());
+    private static CasperMessage.DeployDataProto deployData(String rhoCode, long phloLimit) {
+        return CasperMessage.DeployDataProto.newBuilder()
+                .setTerm(rhoCode)
+                .setTimestamp(0)
+                .setPhloPrice(1)
+                .setPhloLimit(phloLimit)
+                .setShardId(SHARD_ID)
+                //.setLanguage(language)
+                .build();
+    }
+
+    public DeployCache deployCache() {
+        return deployCache;
+    }
+
+    private Uni<DeployOutcome> submit(String rhoCode, CasperMessage.DeployDataProto deployment, DeployListener listener) {
+        NodeClient validator = nodePool.validator();
+        Uni<DeployOutcome> pipeline = metrics.timeStage(DEPLOY, "sign", Uni.createFrom().item(() -> signer.sign(deployment)))
+                .runSubscriptionOn(executor)
+                .flatMap(signed -> doDeploy(validator, rhoCode, signed))
+                .invoke(deployId -> listener.onAccepted(deployId, validator.address()))
+                .call(deployId -> propose(validator, rhoCode))
+                .invoke(deployId -> listener.onStage(DeployStage.PROPOSED, deployId))
+                .flatMap(deployId -> findBlock(rhoCode, deployId).map(blockHash -> new DeployOutcome(deployId, blockHash)))
+                .invoke(outcome -> listener.onStage(DeployStage.IN_BLOCK, outcome.blockHash()))
+                .call(outcome -> awaitFinalized(rhoCode, outcome.blockHash()))
+                .invoke(outcome -> listener.onStage(DeployStage.FINALIZED, outcome.blockHash()))
+                .onFailure(e -> !(e instanceof F1r3flyDeployError)).transform(e -> {
+                    LOGGER.warn("failed to deploy Rho {}", LogPreview.of(rhoCode), e);
+                    return new F1r3flyDeployError(rhoCode, "Failed to deploy", e);
+                });
+        return metrics.trackInFlight(DEPLOY, metrics.timeStage(DEPLOY, "total", pipeline));
+    }
+
+    /**
+     * Picks up tracking of a deploy that an earlier run submitted, e.g. one replayed from {@link DeployJournal}.
+     * Without a block hash the deploy is looked up first; if no block holds it yet, one propose is tried on
+     * {@code validator}, the node the deploy was sent to, before giving up, since the propose of the earlier run
+     * may never have happened.
+     */
+    public Uni<DeployOutcome> resume(String deployId, String validator, String blockHash) {
+        String label = "deploy " + deployId;
+        Uni<String> block = blockHash != null ? succeed(blockHash) : findBlock(label, deployId)
+                .onFailure().recoverWithUni(e -> propose(resumeValidator(deployId, validator), label)
+                        .flatMap(proposed -> findBlock(label, deployId)));
+        Uni<DeployOutcome> pipeline = block
+                .map(hash -> new DeployOutcome(deployId, hash))
+                .call(outcome -> awaitFinalized(label, outcome.blockHash()))
+                .onFailure(e -> !(e instanceof F1r3flyDeployError)).transform(e -> new F1r3flyDeployError(label, "Failed to resume", e));
+        return metrics.trackInFlight(DEPLOY, pipeline);
+    }
 
-        CasperMessage.DeployDataProto signed = builder.build();
+    private NodeClient resumeValidator(String deployId, String address) {
+        if (address != null) {
+            Optional<NodeClient> validator = nodePool.validator(address);
+            if (validator.isPresent()) {
+                return validator.get();
+            }
+            LOGGER.warn("Validator {} of deploy {} is no longer configured, proposing on another one", address, deployId);
+        }
+        return nodePool.validator();
+    }
 
-        byte[] serial = signed.toByteArray();
-        digest.update(serial);
-        byte[] hashed = digest.digest();
-        byte[] signature = secp256k1.compact2der(secp256k1.sign(hashed, signingKey));
-        byte[] pubKey = secp256k1.pubkeyCreate(signingKey);
+    private Uni<String> doDeploy(NodeClient validator, String rhoCode, CasperMessage.DeployDataProto signed) {
+        Uni<String> stage = GrpcUni.from(() -> validator.deployService().doDeploy(signed), executor)
+                .flatMap(deployResponse -> {
+//                    LOGGER.trace("Deploy Response {}", deployResponse);
+                    if (deployResponse.hasError()) {
+                        return this.<String>fail(rhoCode, deployResponse.getError());
+                    } else {
+                        String deployResult = deployResponse.getResult();
+                        return succeed(deployResult.substring(deployResult.indexOf("DeployId is: ") + 13));
+                    }
+                });
+        return metrics.timeStage(DEPLOY, "doDeploy", stage);
+    }
+
+    /**
+     * A propose that finds no new deploys is not an error: a deploy accepted while the previous propose was in
+     * flight may already be in that propose's block, so the caller goes on to {@link #findBlock}, which finds it
+     * or fails.
+     */
+    private Uni<String> propose(NodeClient validator, String rhoCode) {
+        Uni<String> stage = proposeCoalescers.get(validator).awaitPropose()
+                .flatMap(proposeResponse -> {
+                    LOGGER.debug("Propose Response {}", proposeResponse);
+                    if (proposeResponse.hasError() && isNoNewDeploys(proposeResponse.getError())) {
+                        LOGGER.debug("Propose found no new deploys, looking for the block of {}", LogPreview.of(rhoCode));
+                        return succeed(NO_NEW_DEPLOYS);
+                    } else if (proposeResponse.hasError()) {
+                        LOGGER.info("Propose failed: {}", proposeResponse.getError());
+                        return this.<String>fail(rhoCode, proposeResponse.getError());
+                    } else {
+                        return succeed(proposeResponse.getResult());
+                    }
+                });
+        return metrics.timeStage(DEPLOY, "propose", stage);
+    }
+
+    private Uni<String> findBlock(String rhoCode, String deployId) {
+        LOGGER.info("deployId: {}", deployId);
+        ByteString b64 = ByteString.copyFrom(Hex.decode(deployId));
+        DeployServiceCommon.FindDeployQuery query = DeployServiceCommon.FindDeployQuery.newBuilder().setDeployId(b64).build();
+        // observers may not have received the freshly proposed block yet
+        Uni<String> stage = GrpcUni.from(() -> nodePool.reader().deployService().findDeploy(query), executor)
+                .flatMap(findResponse -> {
+                    LOGGER.debug("Find Response {}", findResponse);
+                    if (findResponse.hasError()) {
+                        return this.<String>fail(rhoCode, findResponse.getError());
+                    } else {
+                        return succeed(findResponse.getBlockInfo().getBlockHash());
+                    }
+                })
+                .onFailure().invoke(e -> metrics.countRetry(DEPLOY, "findDeploy"))
+                .onFailure().retry()
+                .withBackOff(FIND_DEPLOY_INIT_DELAY, FIND_DEPLOY_MAX_DELAY)
+                .atMost(FIND_DEPLOY_RETRIES);
+        return metrics.timeStage(DEPLOY, "findDeploy", stage);
+    }
 
-        CasperMessage.DeployDataProto.Builder outbound = signed.toBuilder();
-        outbound
-                .setSigAlgorithm("secp256k1")
-                .setSig(ByteString.copyFrom(signature))
-                .setDeployer(ByteString.copyFrom(pubKey));
+    private Uni<String> awaitFinalized(String rhoCode, String blockHash) {
+        LOGGER.debug("Block Hash {}", blockHash);
+        return metrics.timeStage(DEPLOY, "finalize", finalizationTracker.awaitFinalized(blockHash))
+                .onFailure(TimeoutException.class).transform(e -> new F1r3flyDeployError(rhoCode, e.getMessage(), e));
+    }
 
-        return outbound.build();
+    public FinalizationTracker finalizationTracker() {
+        return finalizationTracker;
     }
 
     private <T> Uni<T> fail(String rho, ServiceErrorOuterClass.ServiceError error) {
         return Uni.createFrom().failure(new F1r3flyDeployError(rho, gatherErrors(error)));
     }
 
+    private static boolean isNoNewDeploys(ServiceErrorOuterClass.ServiceError error) {
+        return error.getMessagesList().stream().anyMatch(message -> message.contains(NO_NEW_DEPLOYS));
+    }
+
     private String gatherErrors(ServiceErrorOuterClass.ServiceError error) {
         ProtocolStringList messages = error.getMessagesList();
         return messages.stream().collect(Collectors.joining("\n"));
@@ -236,78 +494,51 @@ public class Deployer {
         }
     }
 
-    public Uni<String> eval(String rhoCode) {
-        ReplOuterClass.EvalRequest request = ReplOuterClass.EvalRequest.newBuilder()
-                .setProgram(rhoCode)
-                .setPrintUnmatchedSendsOnly(true)
-                .build();
-
-        LOGGER.info("Sending eval request");
-
-        return Uni.createFrom().completionStage(CompletableFuture.supplyAsync(() -> {
-                    try {
-                        return replService.eval(request).get();
-                    } catch (Exception e) {
-                        throw new RuntimeException(e);
-                    }
-                }))
-                .flatMap(response -> {
-                    String output = response.getOutput().trim();
-                    LOGGER.info("Received response: " + output);
-                    if (output.isEmpty()) {
-                        return Uni.createFrom().failure(new RuntimeException("Eval returned empty output"));
-                    } else {
-                        previousResult = currentResult;
-                        currentResult = output;
-                        return Uni.createFrom().item(getDifference(previousResult, currentResult));
+    /**
+     * @param sessionKey picks the REPL node the eval runs on, see {@link NodePool#replNode(String)}
+     */
+    public Uni<EvalResult> eval(String sessionKey, String rhoCode) {
+        NodeClient node = nodePool.replNode(sessionKey);
+        LOGGER.info("Sending eval request to {}", node);
+
+        // the eval's own output comes last, after the baseline's if the node needed one
+        AtomicInteger outputChars = new AtomicInteger();
+        Uni<EvalResult> pipeline = evalSessions.eval(node, rhoCode, program -> metrics.timeStage(EVAL, "repl", repl(node, program, Duration.ofMillis(evalTimeoutMs)))
+                        .invoke(output -> outputChars.set(output.length())))
+                .invoke(result -> {
+                    metrics.recordEvalOutput(outputChars.get(), result.storageEntries().size());
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Difference Set: {}", LogPreview.of(String.join(" | ", result.storageEntries())));
                     }
                 })
-                .onFailure().retry()
-                .withBackOff(Duration.ofMillis(100), Duration.ofSeconds(5))
-                .atMost(10)
+                // never retried: GrpcUni sends the call again on every subscription, and a program that already
+                // ran on the node (e.g. before a timeout) must not run a second time
                 .onFailure().recoverWithItem(e -> {
                     LOGGER.error("Eval failed", e);
-                    return "Eval failed: " + e.getMessage();
+                    return new EvalResult("Eval failed: " + e.getMessage(), List.of());
                 });
+        return metrics.trackInFlight(EVAL, metrics.timeStage(EVAL, "total", pipeline));
     }
 
-    /*
-    This code that looks for the difference between two states and eval commands.
-    That is, we have state n and also state n-1, actually I look for the difference and return it as a result.
-    This is not a very good idea, because according to Greg, we need to rewrite the GrpcRepl server, but we don't have time for that at the moment.
-    In the future, the GrpcRepl service should not return concatenated results, but specific responses to executed contracts.
+    /**
+     * Sends one program to {@code node}'s REPL; empty output and no response within {@code timeout} fail.
      */
-    private String getDifference(String previous, String current) {
-        // Separate Storage Contents from previous and current results
-        String previousStorageContents = previous.contains("Storage Contents:") ? previous.split("Storage Contents:")[1].trim() : "";
-        String currentStorageContents = current.contains("Storage Contents:") ? current.split("Storage Contents:")[1].trim() : "";
-
-        // Convert Storage Contents to sets and clean them
-        Set<String> previousSet = cleanSet(new HashSet<>(Set.of(previousStorageContents.split("\\|"))));
-        Set<String> currentSet = cleanSet(new HashSet<>(Set.of(currentStorageContents.split("\\|"))));
-
-        // Remove previous set from current set to find the difference
-        currentSet.removeAll(previousSet);
-
-        // Combine Deployment cost and the difference in Storage Contents
-        String result = current.split("Storage Contents:")[0].trim();
-        if (!currentSet.isEmpty()) {
-            result += "\nStorage Contents:\n" + String.join(" | ", currentSet);
-        }
-
-        LOGGER.info("Difference Set: {}", currentSet);
-        return result;
-    }
-
-    private Set<String> cleanSet(Set<String> set) {
-        return set.stream()
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toSet());
+    private Uni<String> repl(NodeClient node, String program, Duration timeout) {
+        ReplOuterClass.EvalRequest request = ReplOuterClass.EvalRequest.newBuilder()
+                .setProgram(program)
+                .setPrintUnmatchedSendsOnly(true)
+                .build();
+        return GrpcUni.from(() -> node.replService().eval(request), executor)
+                .ifNoItem().after(timeout).fail()
+                .flatMap(response -> {
+                    String output = response.getOutput().trim();
+                    LOGGER.debug("Received response: {}", LogPreview.of(output));
+                    return output.isEmpty()
+                            ? Uni.createFrom().<String>failure(new RuntimeException("Eval returned empty output"))
+                            : succeed(output);
+                });
     }
 
-
-
 //    /**
 //     * @param rhoCode Rholang code to run, not eval
 //     * @return Output of the run
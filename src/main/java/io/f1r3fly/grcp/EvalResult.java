@@ -0,0 +1,17 @@
+package io.f1r3fly.grcp;
+
+import java.util.List;
+
+/**
+ * REPL output reduced to what an eval changed: the header (deployment cost etc.)
+ * and the storage entries that were not present after the previous eval.
+ */
+public record EvalResult(String header, List<String> storageEntries) {
+
+    public String render() {
+        if (storageEntries.isEmpty()) {
+            return header;
+        }
+        return header + "\n" + StorageDiff.STORAGE_MARKER + "\n" + String.join(" | ", storageEntries);
+    }
+}
@@ -0,0 +1,122 @@
+package io.f1r3fly.grcp;
+
+import io.smallrye.mutiny.Uni;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Storage diff state of the eval sessions on each REPL node.
+ * <p>
+ * Sessions are pinned to nodes (see {@link NodePool#replNode(String)}), but all sessions on a node read the one
+ * REPL tuplespace of that node. Evals on a node therefore run one at a time, and each is diffed against the storage
+ * the previous eval on that node left, so it reports exactly what its own term added and nothing another session
+ * did. Evals on different nodes run in parallel.
+ * <p>
+ * A node without state, or whose state was dropped after being idle for {@code idleTimeout}, first gets a baseline
+ * by evaluating {@code Nil}, so the first eval on it still reports the storage its term created.
+ */
+public class EvalSessions {
+    private static final String BASELINE_PROGRAM = "Nil";
+
+    private final Map<NodeClient, Lane> lanes = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("eval-session-sweeper-"));
+
+    public EvalSessions(Duration idleTimeout) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        long sweepMillis = Math.max(1_000L, idleTimeout.toMillis() / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Evaluates {@code program} on {@code node} once the evals started there before have finished and diffs the
+     * output. {@code repl} sends one program to the node and returns its output; it must fail or time out rather
+     * than never complete, since later evals on the node wait for it.
+     */
+    public Uni<EvalResult> eval(NodeClient node, String program, Function<String, Uni<String>> repl) {
+        return serialized(node, lane -> baseline(lane, repl)
+                .flatMap(ignored -> repl.apply(program))
+                .map(output -> lane.storageDiff.apply(output)));
+    }
+
+    /**
+     * Evaluates {@code program} like {@link #eval}, but only moves the node's baseline past what it added,
+     * so a program run outside any session (a phlo preflight) never shows up in a session's eval.
+     */
+    public Uni<String> absorb(NodeClient node, String program, Function<String, Uni<String>> repl) {
+        return serialized(node, lane -> repl.apply(program)
+                .invoke(output -> {
+                    // without a baseline the next eval takes a fresh one anyway
+                    if (lane.storageDiff != null) {
+                        lane.storageDiff.apply(output);
+                    }
+                }));
+    }
+
+    public int size() {
+        return lanes.size();
+    }
+
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private Uni<Void> baseline(Lane lane, Function<String, Uni<String>> repl) {
+        if (lane.storageDiff != null) {
+            return Uni.createFrom().voidItem();
+        }
+        return repl.apply(BASELINE_PROGRAM)
+                .invoke(output -> {
+                    StorageDiff storageDiff = new StorageDiff();
+                    storageDiff.apply(output);
+                    lane.storageDiff = storageDiff;
+                })
+                .replaceWithVoid();
+    }
+
+    // each call waits for the one queued before it on the same node; the queue is a chain of futures
+    private <T> Uni<T> serialized(NodeClient node, Function<Lane, Uni<T>> work) {
+        return Uni.createFrom().deferred(() -> {
+            Turn turn = new Turn();
+            lanes.compute(node, (key, lane) -> {
+                Lane current = lane != null ? lane : new Lane();
+                turn.lane = current;
+                turn.previous = current.tail;
+                current.tail = turn.done;
+                current.lastUsed = System.nanoTime();
+                return current;
+            });
+            return Uni.createFrom().completionStage(turn.previous)
+                    .flatMap(ignored -> work.apply(turn.lane))
+                    .onTermination().invoke(() -> turn.done.complete(null));
+        });
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (NodeClient node : lanes.keySet()) {
+            lanes.computeIfPresent(node, (key, lane) -> lane.tail.isDone() && now - lane.lastUsed > idleTimeoutNanos ? null : lane);
+        }
+    }
+
+    private static final class Lane {
+        // only touched by the eval whose turn it is; the futures of the chain order those accesses
+        StorageDiff storageDiff;
+        // guarded by the map entry, see serialized and evictIdle
+        CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        long lastUsed = System.nanoTime();
+    }
+
+    private static final class Turn {
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Lane lane;
+        CompletableFuture<Void> previous;
+    }
+}
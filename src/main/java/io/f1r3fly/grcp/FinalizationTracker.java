@@ -0,0 +1,150 @@
+package io.f1r3fly.grcp;
+
+import casper.DeployServiceCommon;
+import casper.v1.DeployServiceGrpc;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Tracks finalization of every block some deploy is waiting on.
+ * Each distinct block is polled once per tick no matter how many deploys wait on it,
+ * and all of its waiters are completed together as soon as the node reports it finalized.
+ * The node API has no finalization stream, so polling is the only option.
+ */
+public class FinalizationTracker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FinalizationTracker.class);
+
+    private final Supplier<DeployServiceGrpc.DeployServiceFutureStub> deployService;
+    private final Executor executor;
+    private final Duration timeout;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("finalization-timer-"));
+
+    private final Map<String, PendingBlock> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingDeploys = new AtomicInteger();
+
+    /**
+     * @param deployService picked again for every poll, so polls follow the pool's read routing
+     */
+    public FinalizationTracker(Supplier<DeployServiceGrpc.DeployServiceFutureStub> deployService, Executor executor,
+                               Duration pollInterval, Duration timeout) {
+        this.deployService = deployService;
+        this.executor = executor;
+        this.timeout = timeout;
+        timer.scheduleWithFixedDelay(this::tick, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Completes with {@code blockHash} once the block is finalized,
+     * or fails with {@link TimeoutException} if that does not happen within the configured timeout.
+     */
+    public Uni<String> awaitFinalized(String blockHash) {
+        return Uni.createFrom().emitter(emitter -> {
+            Waiter waiter = new Waiter(emitter, System.nanoTime() + timeout.toNanos());
+            pending.compute(blockHash, (hash, block) -> {
+                PendingBlock target = block == null ? new PendingBlock() : block;
+                target.waiters.add(waiter);
+                return target;
+            });
+            pendingDeploys.incrementAndGet();
+            emitter.onTermination(() -> forget(blockHash, waiter));
+        });
+    }
+
+    public int pendingBlocks() {
+        return pending.size();
+    }
+
+    public int pendingDeploys() {
+        return pendingDeploys.get();
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        pending.forEach((blockHash, block) -> {
+            expire(blockHash, now);
+            if (block.polling.compareAndSet(false, true)) {
+                poll(blockHash, block);
+            }
+        });
+    }
+
+    private void poll(String blockHash, PendingBlock block) {
+        GrpcUni.from(() -> deployService.get().isFinalized(DeployServiceCommon.IsFinalizedQuery.newBuilder().setHash(blockHash).build()), executor)
+                .subscribe().with(response -> {
+                    block.polling.set(false);
+                    LOGGER.debug("isFinalizedResponse {}", response);
+                    if (!response.hasError() && response.getIsFinalized()) {
+                        finalized(blockHash);
+                    }
+                }, failure -> {
+                    block.polling.set(false);
+                    LOGGER.debug("isFinalized failed for block {}", blockHash, failure);
+                });
+    }
+
+    private void finalized(String blockHash) {
+        PendingBlock block = pending.remove(blockHash);
+        if (block == null) {
+            return;
+        }
+        pendingDeploys.addAndGet(-block.waiters.size());
+        block.waiters.forEach(waiter -> waiter.emitter.complete(blockHash));
+    }
+
+    private void expire(String blockHash, long now) {
+        List<Waiter> expired = new ArrayList<>();
+        pending.computeIfPresent(blockHash, (hash, block) -> {
+            block.waiters.removeIf(waiter -> {
+                boolean overdue = now - waiter.deadline >= 0;
+                if (overdue) {
+                    expired.add(waiter);
+                }
+                return overdue;
+            });
+            return block.waiters.isEmpty() ? null : block;
+        });
+        pendingDeploys.addAndGet(-expired.size());
+        expired.forEach(waiter -> waiter.emitter.fail(
+                new TimeoutException("Block %s was not finalized within %s".formatted(blockHash, timeout))));
+    }
+
+    private void forget(String blockHash, Waiter waiter) {
+        AtomicBoolean removed = new AtomicBoolean();
+        pending.computeIfPresent(blockHash, (hash, block) -> {
+            removed.set(block.waiters.remove(waiter));
+            return block.waiters.isEmpty() ? null : block;
+        });
+        if (removed.get()) {
+            pendingDeploys.decrementAndGet();
+        }
+    }
+
+    private static final class PendingBlock {
+        // only mutated inside ConcurrentHashMap compute functions, read after the block has been removed
+        final List<Waiter> waiters = new ArrayList<>();
+        final AtomicBoolean polling = new AtomicBoolean();
+    }
+
+    private record Waiter(UniEmitter<? super String> emitter, long deadline) {
+    }
+}
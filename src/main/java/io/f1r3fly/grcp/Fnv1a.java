@@ -0,0 +1,26 @@
+package io.f1r3fly.grcp;
+
+/**
+ * 64-bit FNV-1a over chars, finished with the MurmurHash3 fmix64 avalanche so the low bits are usable as a table index.
+ * Split into steps so callers can hash while they scan.
+ */
+final class Fnv1a {
+    static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private Fnv1a() {
+    }
+
+    static long step(long hash, char c) {
+        return (hash ^ c) * PRIME;
+    }
+
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
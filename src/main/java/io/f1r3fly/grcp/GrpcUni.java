@@ -0,0 +1,37 @@
+package io.f1r3fly.grcp;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Bridges gRPC future stubs to Mutiny without parking a thread on {@code Future.get()}.
+ * The call is issued on subscription, so retries re-send the request instead of re-reading a completed future.
+ */
+final class GrpcUni {
+
+    private GrpcUni() {
+    }
+
+    static <T> Uni<T> from(Supplier<ListenableFuture<T>> call, Executor executor) {
+        return Uni.createFrom().emitter(emitter -> {
+            ListenableFuture<T> future = call.get();
+            emitter.onTermination(() -> future.cancel(false));
+            Futures.addCallback(future, new FutureCallback<>() {
+                @Override
+                public void onSuccess(T result) {
+                    emitter.complete(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    emitter.fail(t);
+                }
+            }, executor);
+        });
+    }
+}
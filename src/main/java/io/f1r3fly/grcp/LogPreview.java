@@ -0,0 +1,58 @@
+package io.f1r3fly.grcp;
+
+/**
+ * Log argument for payloads of unbounded size such as terms and REPL output. It renders the first
+ * {@value #PREVIEW_CHARS} characters on one line, the length and a 64-bit hash, so lines stay small while
+ * different payloads stay distinguishable. Nothing is computed unless the line is actually logged, and then
+ * at most {@value #HASH_CHARS} characters are hashed, on the logging thread.
+ * <p>
+ * Up to {@value #HASH_CHARS} characters the hash is the one {@link TermNormalizer} computes, so a normalized
+ * term logs with the hash of its {@link NormalizedTerm} and the {@link DeployJournal} entry for it. Longer
+ * payloads are hashed by that prefix and their length, which no longer matches the term hash.
+ */
+public final class LogPreview {
+    static final int PREVIEW_CHARS = 200;
+    static final int HASH_CHARS = 4096;
+
+    private final CharSequence payload;
+
+    private LogPreview(CharSequence payload) {
+        this.payload = payload;
+    }
+
+    public static Object of(CharSequence payload) {
+        return new LogPreview(payload);
+    }
+
+    @Override
+    public String toString() {
+        if (payload == null) {
+            return "null";
+        }
+        int length = payload.length();
+        int shown = Math.min(length, PREVIEW_CHARS);
+        StringBuilder preview = new StringBuilder(shown + 48);
+        for (int i = 0; i < shown; i++) {
+            char c = payload.charAt(i);
+            switch (c) {
+                case '\n' -> preview.append("\\n");
+                case '\r' -> preview.append("\\r");
+                case '\t' -> preview.append("\\t");
+                default -> preview.append(c);
+            }
+        }
+        if (shown < length) {
+            preview.append("...");
+        }
+        int hashed = Math.min(length, HASH_CHARS);
+        long hash = Fnv1a.OFFSET;
+        for (int i = 0; i < hashed; i++) {
+            hash = Fnv1a.step(hash, payload.charAt(i));
+        }
+        if (hashed < length) {
+            hash = Fnv1a.step(Fnv1a.step(hash, (char) (length >>> 16)), (char) length);
+        }
+        return preview.append(" [").append(length).append(" chars, hash ")
+                .append(Long.toHexString(Fnv1a.finish(hash))).append(']').toString();
+    }
+}
@@ -0,0 +1,109 @@
+package io.f1r3fly.grcp;
+
+import casper.v1.DeployServiceGrpc;
+import casper.v1.ProposeServiceGrpc;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import repl.ReplGrpc;
+
+import java.util.function.Supplier;
+
+/**
+ * One node of the shard: its channel and the stubs on top of it.
+ * The channel is only built on first use, so startup does not wait for the gRPC transport to load.
+ */
+public class NodeClient {
+    private static final int MAX_MESSAGE_SIZE = Integer.MAX_VALUE; // ~2 GB
+
+    private final NodeRole role;
+    private final String address;
+    private final Supplier<ManagedChannel> channelFactory;
+    private volatile Connection connection;
+
+    public NodeClient(NodeRole role, String address, Supplier<ManagedChannel> channelFactory) {
+        this.role = role;
+        this.address = address;
+        this.channelFactory = channelFactory;
+    }
+
+    public NodeRole role() {
+        return role;
+    }
+
+    public String address() {
+        return address;
+    }
+
+    public DeployServiceGrpc.DeployServiceFutureStub deployService() {
+        return connection().deployService();
+    }
+
+    public ProposeServiceGrpc.ProposeServiceFutureStub proposeService() {
+        return connection().proposeService();
+    }
+
+    public ReplGrpc.ReplFutureStub replService() {
+        return connection().replService();
+    }
+
+    /**
+     * Also asks an idle channel to connect, so the next check reflects whether the node is reachable.
+     * A channel that was never used reports {@link ConnectivityState#IDLE} without being built.
+     */
+    public ConnectivityState checkState() {
+        Connection current = connection;
+        return current == null ? ConnectivityState.IDLE : current.channel().getState(true);
+    }
+
+    /**
+     * Builds the channel if needed and starts connecting it.
+     */
+    public void connect() {
+        connection().channel().getState(true);
+    }
+
+    public void shutdown() {
+        Connection current = connection;
+        if (current != null) {
+            current.channel().shutdown();
+        }
+    }
+
+    private Connection connection() {
+        Connection current = connection;
+        if (current == null) {
+            synchronized (this) {
+                current = connection;
+                if (current == null) {
+                    current = Connection.open(channelFactory.get());
+                    connection = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private record Connection(ManagedChannel channel,
+                              DeployServiceGrpc.DeployServiceFutureStub deployService,
+                              ProposeServiceGrpc.ProposeServiceFutureStub proposeService,
+                              ReplGrpc.ReplFutureStub replService) {
+
+        static Connection open(ManagedChannel channel) {
+            return new Connection(channel,
+                    DeployServiceGrpc.newFutureStub(channel)
+                            .withMaxInboundMessageSize(MAX_MESSAGE_SIZE)
+                            .withMaxOutboundMessageSize(MAX_MESSAGE_SIZE),
+                    ProposeServiceGrpc.newFutureStub(channel)
+                            .withMaxInboundMessageSize(MAX_MESSAGE_SIZE)
+                            .withMaxOutboundMessageSize(MAX_MESSAGE_SIZE),
+                    ReplGrpc.newFutureStub(channel)
+                            .withMaxInboundMessageSize(MAX_MESSAGE_SIZE)
+                            .withMaxOutboundMessageSize(MAX_MESSAGE_SIZE));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return role.name().toLowerCase() + "@" + address;
+    }
+}
@@ -0,0 +1,226 @@
+package io.f1r3fly.grcp;
+
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Channels to every configured node, health-checked and picked round-robin by role.
+ * <p>
+ * {@code grpc.nodes} is a comma separated list of {@code role@host:port}, e.g.
+ * {@code validator@10.0.0.1:40401,observer@10.0.0.2:40401}. Without it the single
+ * {@code grpc.node.host}/{@code grpc.node.port} node serves as validator for everything.
+ * Reads go to healthy observers and fall back to validators when there are none.
+ * REPL evals are the exception, see {@link #replNode()}.
+ */
+@Component
+public class NodePool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodePool.class);
+    private static final String IN_PROCESS_PREFIX = "inprocess:";
+
+    @Value("${grpc.nodes:}")
+    private String nodesSpec;
+
+    @Value("${grpc.node.host}")
+    private String nodeHost;
+
+    @Value("${grpc.node.port}")
+    private int grpcPort;
+
+    @Value("${deployer.threads:4}")
+    private int deployerThreads;
+
+    @Value("${grpc.health.interval.ms:5000}")
+    private long healthIntervalMs;
+
+    private ExecutorService executor;
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("node-health-"));
+    private final List<NodeClient> validators = new ArrayList<>();
+    private final List<NodeClient> observers = new ArrayList<>();
+    private final Map<NodeClient, Boolean> healthy = new ConcurrentHashMap<>();
+    private final AtomicInteger validatorCursor = new AtomicInteger();
+    private final AtomicInteger observerCursor = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        this.executor = Executors.newFixedThreadPool(deployerThreads, new DaemonThreadFactory("deployer-"));
+
+        if (nodesSpec == null || nodesSpec.isBlank()) {
+            if (nodeHost == null || nodeHost.isBlank()) {
+                throw new IllegalStateException("Set either grpc.node.host/grpc.node.port or grpc.nodes");
+            }
+            add(NodeRole.VALIDATOR, nodeHost + ":" + grpcPort);
+        } else {
+            for (String node : nodesSpec.split(",")) {
+                String spec = node.trim();
+                if (spec.isEmpty()) {
+                    continue;
+                }
+                int at = spec.indexOf('@');
+                NodeRole role = at < 0 ? NodeRole.VALIDATOR : NodeRole.valueOf(spec.substring(0, at).trim().toUpperCase(Locale.ROOT));
+                add(role, spec.substring(at + 1).trim());
+            }
+        }
+        if (validators.isEmpty()) {
+            throw new IllegalStateException("grpc.nodes must contain at least one validator: " + nodesSpec);
+        }
+        LOGGER.info("Validators: {}, observers: {}", validators, observers);
+
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        healthChecker.shutdownNow();
+        validators.forEach(NodeClient::shutdown);
+        observers.forEach(NodeClient::shutdown);
+        executor.shutdown();
+    }
+
+    /**
+     * Executor the channels deliver responses on; continuations of node calls should stay on it.
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    public List<NodeClient> validators() {
+        return List.copyOf(validators);
+    }
+
+    /**
+     * Node for doDeploy and propose.
+     */
+    public NodeClient validator() {
+        return pick(validators, validatorCursor);
+    }
+
+    /**
+     * The configured validator with this address, e.g. the one a journaled deploy was sent to.
+     */
+    public Optional<NodeClient> validator(String address) {
+        return validators.stream().filter(node -> node.address().equals(address)).findFirst();
+    }
+
+    /**
+     * Node for findDeploy and isFinalized.
+     */
+    public NodeClient reader() {
+        if (observers.stream().anyMatch(this::isHealthy)) {
+            return pick(observers, observerCursor);
+        }
+        return validator();
+    }
+
+    /**
+     * Node for the REPL evals of one eval session. Every node has a REPL tuplespace of its own, so a session must
+     * keep diffing against the same node: {@code sessionKey} pins it to one observer (validators only stand in when
+     * no observer is healthy), and it moves on to the next healthy node only while its own is unhealthy.
+     * Different sessions spread over the observers, so adding observers adds eval throughput.
+     */
+    public NodeClient replNode(String sessionKey) {
+        NodeClient node = pinned(observers, sessionKey);
+        if (node == null) {
+            node = pinned(validators, sessionKey);
+        }
+        if (node == null) {
+            List<NodeClient> nodes = observers.isEmpty() ? validators : observers;
+            node = nodes.get(Math.floorMod(sessionKey.hashCode(), nodes.size()));
+        }
+        return node;
+    }
+
+    /**
+     * Builds every channel and starts connecting, so the first command does not pay for it.
+     */
+    public void warmUp() {
+        validators.forEach(NodeClient::connect);
+        observers.forEach(NodeClient::connect);
+    }
+
+    public boolean isHealthy(NodeClient node) {
+        return healthy.getOrDefault(node, true);
+    }
+
+    private void add(NodeRole role, String address) {
+        if (!address.startsWith(IN_PROCESS_PREFIX) && address.lastIndexOf(':') < 0) {
+            throw new IllegalArgumentException("Node address must be host:port: " + address);
+        }
+        NodeClient node = new NodeClient(role, address, () -> channel(address));
+        (role == NodeRole.VALIDATOR ? validators : observers).add(node);
+    }
+
+    // "inprocess:name" connects to an in-process server of that name, as started by the load-test fake node
+    private ManagedChannel channel(String address) {
+        if (address.startsWith(IN_PROCESS_PREFIX)) {
+            return InProcessChannelBuilder.forName(address.substring(IN_PROCESS_PREFIX.length()))
+                    .executor(executor)
+                    .build();
+        }
+        int colon = address.lastIndexOf(':');
+        return ManagedChannelBuilder
+                .forAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)))
+                .usePlaintext()
+                .executor(executor)
+                .build();
+    }
+
+    // the node the key hashes to, or the next healthy one after it; null if none is healthy
+    private NodeClient pinned(List<NodeClient> nodes, String key) {
+        int start = Math.floorMod(key.hashCode(), Math.max(1, nodes.size()));
+        for (int i = 0; i < nodes.size(); i++) {
+            NodeClient node = nodes.get((start + i) % nodes.size());
+            if (isHealthy(node)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    // round-robin over healthy nodes; if none is healthy, round-robin over all and let the call fail
+    private NodeClient pick(List<NodeClient> nodes, AtomicInteger cursor) {
+        int start = Math.floorMod(cursor.getAndIncrement(), nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            NodeClient node = nodes.get((start + i) % nodes.size());
+            if (isHealthy(node)) {
+                return node;
+            }
+        }
+        return nodes.get(start);
+    }
+
+    private void checkHealth() {
+        checkHealth(validators);
+        checkHealth(observers);
+    }
+
+    private void checkHealth(List<NodeClient> nodes) {
+        for (NodeClient node : nodes) {
+            ConnectivityState state = node.checkState();
+            boolean isHealthy = state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN;
+            Boolean wasHealthy = healthy.put(node, isHealthy);
+            if (wasHealthy != null && wasHealthy != isHealthy) {
+                LOGGER.warn("Node {} is now {} ({})", node, isHealthy ? "healthy" : "unhealthy", state);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.f1r3fly.grcp;
+
+public enum NodeRole {
+    /**
+     * Accepts deploys and proposes blocks.
+     */
+    VALIDATOR,
+    /**
+     * Read-only: serves eval, findDeploy and isFinalized.
+     */
+    OBSERVER
+}
@@ -0,0 +1,8 @@
+package io.f1r3fly.grcp;
+
+/**
+ * @param term canonical form of a Rholang term, see {@link TermNormalizer}
+ * @param hash 64-bit hash of {@code term}; equal terms hash equally no matter how they were formatted when sent
+ */
+public record NormalizedTerm(String term, long hash) {
+}
@@ -0,0 +1,96 @@
+package io.f1r3fly.grcp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Turns the deployment cost an observer's REPL reports for a term into the phlo limit to deploy it with,
+ * so a term heavier than the default limit gets enough phlo on its first deploy instead of failing after
+ * the whole doDeploy, propose and findDeploy round trip.
+ * <p>
+ * The REPL cost is multiplied by a safety margin and clamped to {@code [minLimit, maxLimit]}.
+ * Limits are cached by {@link NormalizedTerm#hash()} in an LRU map, so a repeated deploy skips the dry run.
+ */
+public class PhloEstimator {
+    static final String COST_MARKER = "Deployment cost:";
+
+    private final double margin;
+    private final long minLimit;
+    private final long maxLimit;
+    private final Map<Long, Long> limits;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PhloEstimator(double margin, long minLimit, long maxLimit, int maxSize) {
+        this.margin = margin;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limits = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public OptionalLong cached(long termHash) {
+        Long limit;
+        synchronized (limits) {
+            limit = limits.get(termHash);
+        }
+        if (limit == null) {
+            misses.increment();
+            return OptionalLong.empty();
+        }
+        hits.increment();
+        return OptionalLong.of(limit);
+    }
+
+    /**
+     * Reads the cost out of a REPL response and caches the limit derived from it.
+     *
+     * @return empty if the output carries no cost, e.g. because the term does not parse
+     */
+    public OptionalLong estimate(long termHash, String replOutput) {
+        OptionalLong cost = parseCost(replOutput);
+        if (cost.isEmpty()) {
+            return cost;
+        }
+        long limit = Math.max(minLimit, Math.min(maxLimit, (long) Math.ceil(cost.getAsLong() * margin)));
+        synchronized (limits) {
+            limits.put(termHash, limit);
+        }
+        return OptionalLong.of(limit);
+    }
+
+    // the REPL prints e.g. "Deployment cost: Cost(1234,eval)"; the cost is the first number after the marker
+    static OptionalLong parseCost(String replOutput) {
+        int marker = replOutput.indexOf(COST_MARKER);
+        if (marker < 0) {
+            return OptionalLong.empty();
+        }
+        int start = marker + COST_MARKER.length();
+        int lineEnd = replOutput.indexOf('\n', start);
+        int end = lineEnd < 0 ? replOutput.length() : lineEnd;
+        while (start < end && !Character.isDigit(replOutput.charAt(start))) {
+            start++;
+        }
+        int digits = start;
+        while (digits < end && Character.isDigit(replOutput.charAt(digits))) {
+            digits++;
+        }
+        if (digits == start || digits - start > 18) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(Long.parseLong(replOutput, start, digits, 10));
+    }
+
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+}
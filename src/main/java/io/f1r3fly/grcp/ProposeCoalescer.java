@@ -0,0 +1,115 @@
+package io.f1r3fly.grcp;
+
+import casper.ProposeServiceCommon;
+import casper.v1.ProposeServiceGrpc;
+import casper.v1.ProposeServiceV1;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for proposes: deploys that arrive within {@code window} of each other, or until {@code maxBatchSize}
+ * of them are waiting, share a single synchronous propose and all receive its response.
+ * At most one propose is in flight; deploys arriving meanwhile form the next batch.
+ */
+public class ProposeCoalescer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProposeCoalescer.class);
+    private static final ProposeServiceCommon.ProposeQuery PROPOSE_QUERY =
+            ProposeServiceCommon.ProposeQuery.newBuilder().setIsAsync(false).build();
+
+    private final Supplier<ProposeServiceGrpc.ProposeServiceFutureStub> proposeService;
+    private final Executor executor;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("propose-timer-"));
+
+    private final Object lock = new Object();
+    private List<UniEmitter<? super ProposeServiceV1.ProposeResponse>> pending = new ArrayList<>();
+    private boolean flushScheduled;
+    private boolean proposing;
+
+    public ProposeCoalescer(Supplier<ProposeServiceGrpc.ProposeServiceFutureStub> proposeService, Executor executor,
+                            Duration window, int maxBatchSize) {
+        this.proposeService = proposeService;
+        this.executor = executor;
+        this.window = window;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Completes with the response of the first propose issued after subscription.
+     */
+    public Uni<ProposeServiceV1.ProposeResponse> awaitPropose() {
+        return Uni.createFrom().<ProposeServiceV1.ProposeResponse>emitter(this::enqueue);
+    }
+
+    public int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void enqueue(UniEmitter<? super ProposeServiceV1.ProposeResponse> emitter) {
+        synchronized (lock) {
+            pending.add(emitter);
+            if (proposing) {
+                return;
+            }
+            if (pending.size() >= maxBatchSize) {
+                flushLocked();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                timer.schedule(this::flush, window.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flush() {
+        synchronized (lock) {
+            flushScheduled = false;
+            if (!proposing && !pending.isEmpty()) {
+                flushLocked();
+            }
+        }
+    }
+
+    private void flushLocked() {
+        List<UniEmitter<? super ProposeServiceV1.ProposeResponse>> batch = pending;
+        pending = new ArrayList<>();
+        proposing = true;
+        LOGGER.debug("Proposing for {} deploys", batch.size());
+
+        GrpcUni.from(() -> proposeService.get().propose(PROPOSE_QUERY), executor)
+                .subscribe().with(response -> {
+                    batch.forEach(emitter -> emitter.complete(response));
+                    proposeDone();
+                }, failure -> {
+                    batch.forEach(emitter -> emitter.fail(failure));
+                    proposeDone();
+                });
+    }
+
+    private void proposeDone() {
+        synchronized (lock) {
+            proposing = false;
+            // whatever queued up behind the last propose has already waited long enough
+            if (!pending.isEmpty()) {
+                flushLocked();
+            }
+        }
+    }
+}
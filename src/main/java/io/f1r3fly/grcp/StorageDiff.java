@@ -0,0 +1,85 @@
+package io.f1r3fly.grcp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+This code looks for the difference between two states of eval commands.
+That is, we have state n and also state n-1, and we return only the storage entries that are new in state n.
+This is not a very good idea, because according to Greg, we need to rewrite the GrpcRepl server, but we don't have time for that at the moment.
+In the future, the GrpcRepl service should not return concatenated results, but specific responses to executed contracts.
+
+Instead of keeping the previous output around, only a 64-bit hash of every previously seen entry is kept,
+and the new output is scanned once without splitting or copying anything but the new entries.
+The hashes of the current output go into a second set that then swaps places with the first, so after
+the first few evals a session keeps reusing the same two slot arrays.
+ */
+public class StorageDiff {
+    public static final String STORAGE_MARKER = "Storage Contents:";
+
+    private static final char ENTRY_SEPARATOR = '|';
+
+    private LongHashSet seen = new LongHashSet(16);
+    private LongHashSet current = new LongHashSet(16);
+
+    /**
+     * Diffs {@code output} against the output passed to the previous call and remembers it for the next one.
+     * Not thread-safe: callers that share an instance must serialize access.
+     */
+    public EvalResult apply(String output) {
+        int marker = output.indexOf(STORAGE_MARKER);
+        if (marker < 0) {
+            // an error says nothing about the tuplespace, so the baseline stays
+            return new EvalResult(output.trim(), List.of());
+        }
+
+        int storageStart = marker + STORAGE_MARKER.length();
+        int storageEnd = output.indexOf(STORAGE_MARKER, storageStart);
+        if (storageEnd < 0) {
+            storageEnd = output.length();
+        }
+
+        current.clear();
+        List<String> unseen = new ArrayList<>();
+        int entryStart = storageStart;
+        while (entryStart <= storageEnd) {
+            int entryEnd = output.indexOf(ENTRY_SEPARATOR, entryStart);
+            if (entryEnd < 0 || entryEnd > storageEnd) {
+                entryEnd = storageEnd;
+            }
+
+            int start = entryStart;
+            int end = entryEnd;
+            while (start < end && Character.isWhitespace(output.charAt(start))) {
+                start++;
+            }
+            while (end > start && Character.isWhitespace(output.charAt(end - 1))) {
+                end--;
+            }
+            if (start < end) {
+                long hash = hash(output, start, end);
+                if (current.add(hash) && !seen.contains(hash)) {
+                    unseen.add(output.substring(start, end));
+                }
+            }
+            entryStart = entryEnd + 1;
+        }
+
+        LongHashSet previous = seen;
+        seen = current;
+        current = previous;
+        return new EvalResult(output.substring(0, marker).trim(), unseen);
+    }
+
+    public int indexedEntries() {
+        return seen.size();
+    }
+
+    static long hash(CharSequence text, int start, int end) {
+        long h = Fnv1a.OFFSET;
+        for (int i = start; i < end; i++) {
+            h = Fnv1a.step(h, text.charAt(i));
+        }
+        return Fnv1a.finish(h);
+    }
+}
@@ -0,0 +1,159 @@
+package io.f1r3fly.grcp;
+
+/**
+ * Brings a Rholang term from a Discord message or an attached file into one canonical single-line form:
+ * <ul>
+ *     <li>a surrounding Discord code fence (<code>```</code> with an optional language tag) is stripped,</li>
+ *     <li>{@code //} and {@code /* *}{@code /} comments are dropped,</li>
+ *     <li>every run of whitespace becomes one space, and leading and trailing whitespace is removed,</li>
+ *     <li>string literals and backtick URIs are copied verbatim, including escapes, newlines and tabs.</li>
+ * </ul>
+ * This is one hand-written pass that hashes the output as it is written. If the term is already canonical,
+ * the input string itself is returned and nothing but the result record is allocated.
+ */
+public final class TermNormalizer {
+    private static final String FENCE = "```";
+
+    private final String input;
+    private final int end;
+    private char[] buffer;
+    private int length;
+    private long hash = Fnv1a.OFFSET;
+    private boolean pendingSpace;
+
+    private TermNormalizer(String input, int end) {
+        this.input = input;
+        this.end = end;
+    }
+
+    public static NormalizedTerm normalize(String term) {
+        int start = skipWhitespace(term, 0);
+        int end = term.length();
+        if (term.startsWith(FENCE, start)) {
+            start = fencedContentStart(term, start + FENCE.length());
+            int trimmedEnd = trimTrailingWhitespace(term, start, end);
+            if (trimmedEnd - start >= FENCE.length() && term.startsWith(FENCE, trimmedEnd - FENCE.length())) {
+                end = trimmedEnd - FENCE.length();
+            }
+        }
+        TermNormalizer normalizer = new TermNormalizer(term, end);
+        normalizer.scan(start);
+        return new NormalizedTerm(normalizer.result(), Fnv1a.finish(normalizer.hash));
+    }
+
+    private void scan(int position) {
+        int i = position;
+        while (i < end) {
+            char c = input.charAt(i);
+            if (isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+            } else if (c == '/' && i + 1 < end && input.charAt(i + 1) == '/') {
+                i = lineCommentEnd(i + 2);
+                pendingSpace = true;
+            } else if (c == '/' && i + 1 < end && input.charAt(i + 1) == '*') {
+                i = blockCommentEnd(i + 2);
+                pendingSpace = true;
+            } else if (c == '"' || c == '`') {
+                i = copyLiteral(i, c);
+            } else {
+                emitToken(c);
+                i++;
+            }
+        }
+    }
+
+    // copies the literal including its quotes; an unterminated literal runs to the end of the term
+    private int copyLiteral(int start, char quote) {
+        emitToken(quote);
+        int i = start + 1;
+        while (i < end) {
+            char c = input.charAt(i++);
+            emit(c);
+            if (c == '\\' && quote == '"' && i < end) {
+                emit(input.charAt(i++));
+            } else if (c == quote) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private int lineCommentEnd(int i) {
+        while (i < end && input.charAt(i) != '\n' && input.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private int blockCommentEnd(int i) {
+        while (i + 1 < end && !(input.charAt(i) == '*' && input.charAt(i + 1) == '/')) {
+            i++;
+        }
+        return Math.min(i + 2, end);
+    }
+
+    private void emitToken(char c) {
+        if (pendingSpace && length > 0) {
+            emit(' ');
+        }
+        pendingSpace = false;
+        emit(c);
+    }
+
+    // while the output is still a prefix of the input nothing is copied; the buffer is only made on the first difference
+    private void emit(char c) {
+        if (buffer == null) {
+            if (input.charAt(length) == c) {
+                length++;
+                hash = Fnv1a.step(hash, c);
+                return;
+            }
+            buffer = new char[input.length()];
+            input.getChars(0, length, buffer, 0);
+        }
+        buffer[length++] = c;
+        hash = Fnv1a.step(hash, c);
+    }
+
+    private String result() {
+        if (buffer != null) {
+            return new String(buffer, 0, length);
+        }
+        return length == input.length() ? input : input.substring(0, length);
+    }
+
+    // after the opening fence: a language tag is only a tag if the line ends right after it
+    private static int fencedContentStart(String term, int afterFence) {
+        int i = afterFence;
+        while (i < term.length() && isTagChar(term.charAt(i))) {
+            i++;
+        }
+        if (i < term.length() && term.charAt(i) == '\r') {
+            i++;
+        }
+        return i < term.length() && term.charAt(i) == '\n' ? i + 1 : afterFence;
+    }
+
+    private static int skipWhitespace(String term, int i) {
+        while (i < term.length() && isWhitespace(term.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimTrailingWhitespace(String term, int start, int end) {
+        while (end > start && isWhitespace(term.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isTagChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '+';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+}
@@ -0,0 +1,58 @@
+package io.f1r3fly.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples repetitive log lines: every message pattern (the format string, before its arguments are filled in)
+ * gets at most {@code allowedPerSecond} lines per second, the rest of that second is dropped.
+ * WARN and ERROR are never sampled. Unlike logback's {@code DuplicateMessageFilter} a pattern is
+ * let through again every second, so a steady stream of deploys keeps showing up in the log.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private int allowedPerSecond = 20;
+    private int maxPatterns = 1024;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // also called for disabled levels, so those have to be cheap; the level check proper comes after this filter
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (windows.size() >= maxPatterns && !windows.containsKey(format)) {
+            // formats should be constants; anything else must not make this map grow without bound
+            windows.clear();
+        }
+        Window window = windows.computeIfAbsent(format, key -> new Window());
+        return window.admit(System.nanoTime() / 1_000_000_000L, allowedPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setAllowedPerSecond(int allowedPerSecond) {
+        this.allowedPerSecond = allowedPerSecond;
+    }
+
+    public void setMaxPatterns(int maxPatterns) {
+        this.maxPatterns = maxPatterns;
+    }
+
+    private static final class Window {
+        private long second = -1;
+        private int count;
+
+        synchronized boolean admit(long now, int allowed) {
+            if (now != second) {
+                second = now;
+                count = 0;
+            }
+            return ++count <= allowed;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.f1r3fly.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.f1r3fly.grcp.DaemonThreadFactory;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the Prometheus scrape at {@code http://metrics.host:metrics.port/metrics}.
+ * The bot is not a web application, so the JDK HTTP server is used instead of pulling in a servlet stack.
+ * Set {@code metrics.port} to 0 to disable it.
+ */
+@Component
+public class MetricsEndpoint {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    private final PrometheusMeterRegistry registry;
+    private final String host;
+    private final int port;
+    private HttpServer server;
+
+    public MetricsEndpoint(PrometheusMeterRegistry registry,
+                           @Value("${metrics.host:127.0.0.1}") String host,
+                           @Value("${metrics.port:9464}") int port) {
+        this.registry = registry;
+        this.host = host;
+        this.port = port;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (port == 0) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(new DaemonThreadFactory("metrics-")));
+        server.start();
+        LOGGER.info("Metrics available at http://{}:{}/metrics", host, port);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+}
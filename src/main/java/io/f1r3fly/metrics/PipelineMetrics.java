@@ -0,0 +1,99 @@
+package io.f1r3fly.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters for the deploy, batch deploy and eval pipelines: per-stage latency, failed attempts that were retried,
+ * in-flight counts, eval output sizes and command counts.
+ */
+@Component
+public class PipelineMetrics {
+    public static final String DEPLOY = "deploy";
+    public static final String EVAL = "eval";
+    public static final String BATCH = "batch";
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final DistributionSummary evalOutputSize;
+    private final DistributionSummary evalDiffEntries;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.evalOutputSize = DistributionSummary.builder("f1r3bot.eval.output.size")
+                .description("Characters of REPL output per eval")
+                .baseUnit("chars")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+        this.evalDiffEntries = DistributionSummary.builder("f1r3bot.eval.diff.entries")
+                .description("New storage entries reported per eval")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Times {@code stage} from subscription until it emits or fails, tagged with the outcome.
+     */
+    public <T> Uni<T> timeStage(String pipeline, String stage, Uni<T> uni) {
+        return Uni.createFrom().deferred(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return uni.onItemOrFailure().invoke((item, failure) ->
+                    sample.stop(stageTimer(pipeline, stage, failure == null ? "success" : "failure")));
+        });
+    }
+
+    /**
+     * Counts {@code uni} in the {@code f1r3bot.pipeline.in.flight} gauge while it runs.
+     */
+    public <T> Uni<T> trackInFlight(String pipeline, Uni<T> uni) {
+        AtomicInteger gauge = inFlight.computeIfAbsent(pipeline, name -> registry.gauge(
+                "f1r3bot.pipeline.in.flight", Tags.of("pipeline", name), new AtomicInteger()));
+        return uni.onSubscription().invoke(() -> gauge.incrementAndGet())
+                .onTermination().invoke(gauge::decrementAndGet);
+    }
+
+    public void countRetry(String pipeline, String stage) {
+        counters.computeIfAbsent("retry:" + pipeline + ":" + stage, key -> Counter.builder("f1r3bot.pipeline.retries")
+                .description("Failed attempts of a pipeline stage")
+                .tags("pipeline", pipeline, "stage", stage)
+                .register(registry)).increment();
+    }
+
+    public void recordEvalOutput(int outputChars, int newEntries) {
+        evalOutputSize.record(outputChars);
+        evalDiffEntries.record(newEntries);
+    }
+
+    public void countCommand(String command) {
+        counters.computeIfAbsent("command:" + command, key -> Counter.builder("f1r3bot.commands")
+                .description("Commands received, by command")
+                .tag("command", command)
+                .register(registry)).increment();
+    }
+
+    private Timer stageTimer(String pipeline, String stage, String outcome) {
+        return stageTimers.computeIfAbsent(pipeline + ":" + stage + ":" + outcome, key -> Timer.builder("f1r3bot.pipeline.stage")
+                .description("Latency of a deploy or eval pipeline stage")
+                .tags("pipeline", pipeline, "stage", stage, "outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+}
@@ -0,0 +1,68 @@
+package io.f1r3fly.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.sharding.ShardManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Gauges per shard of this process, tagged with the shard id: the guilds and text channels in the shard's cache,
+ * which is what its memory use grows with, and its gateway ping.
+ * <p>
+ * The JVM cannot attribute heap to a shard, so the heap itself stays with the JVM memory metrics;
+ * every ready shard logs the heap in use at that point together with its cache sizes.
+ */
+@Component
+public class ShardMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardMetrics.class);
+
+    private final MeterRegistry registry;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    public ShardMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Registers the gauges of a shard once it is ready; the shard manager starts its shards one after another,
+     * so they do not all exist when it is built. Registering a shard again, e.g. after a restart, is a no-op.
+     */
+    public void bind(JDA shard) {
+        ShardManager shardManager = shard.getShardManager();
+        if (shardManager == null) {
+            return;
+        }
+        int shardId = shard.getShardInfo().getShardId();
+        // looked up on every scrape, since the shard manager replaces the JDA instance of a restarted shard
+        register("f1r3bot.shard.guilds", "Guilds cached by the shard", shardManager, shardId,
+                current -> current.getGuildCache().size());
+        register("f1r3bot.shard.text.channels", "Text channels cached by the shard", shardManager, shardId,
+                current -> current.getTextChannelCache().size());
+        register("f1r3bot.shard.gateway.ping", "Gateway heartbeat round trip in ms", shardManager, shardId,
+                JDA::getGatewayPing);
+    }
+
+    public void logReady(JDA shard) {
+        LOGGER.info("Shard {} ready: {} guilds, {} text channels, {} MB heap in use",
+                shard.getShardInfo().getShardString(), shard.getGuildCache().size(), shard.getTextChannelCache().size(),
+                memory.getHeapMemoryUsage().getUsed() / (1024 * 1024));
+    }
+
+    private void register(String name, String description, ShardManager shardManager, int shardId, ToDoubleFunction<JDA> value) {
+        Gauge.builder(name, shardManager, manager -> {
+                    JDA shard = manager.getShardById(shardId);
+                    return shard == null ? Double.NaN : value.applyAsDouble(shard);
+                })
+                .description(description)
+                .tags(Tags.of("shard", String.valueOf(shardId)))
+                .register(registry);
+    }
+}
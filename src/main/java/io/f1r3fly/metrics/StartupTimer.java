@@ -0,0 +1,55 @@
+package io.f1r3fly.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time from JVM start until all Discord shards of this process are ready and until the first command is served,
+ * logged once and exported as {@code f1r3bot.startup.ready} and {@code f1r3bot.startup.first.command}.
+ */
+@Component
+public class StartupTimer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupTimer.class);
+    private static final long NOT_YET = -1;
+
+    private final AtomicLong readyMillis = new AtomicLong(NOT_YET);
+    private final AtomicLong firstCommandMillis = new AtomicLong(NOT_YET);
+
+    public StartupTimer(MeterRegistry registry) {
+        TimeGauge.builder("f1r3bot.startup.ready", readyMillis, TimeUnit.MILLISECONDS, StartupTimer::valueOf)
+                .description("Time from JVM start until all shards were ready")
+                .register(registry);
+        TimeGauge.builder("f1r3bot.startup.first.command", firstCommandMillis, TimeUnit.MILLISECONDS, StartupTimer::valueOf)
+                .description("Time from JVM start until the first command was served")
+                .register(registry);
+    }
+
+    public void markReady() {
+        mark(readyMillis, "All Discord shards ready");
+    }
+
+    public void markFirstCommand() {
+        if (firstCommandMillis.get() == NOT_YET) {
+            mark(firstCommandMillis, "First command served");
+        }
+    }
+
+    private static void mark(AtomicLong millis, String what) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (millis.compareAndSet(NOT_YET, uptime)) {
+            LOGGER.info("{} {} ms after JVM start", what, uptime);
+        }
+    }
+
+    private static double valueOf(AtomicLong millis) {
+        long value = millis.get();
+        return value == NOT_YET ? Double.NaN : value;
+    }
+}
@@ -0,0 +1,338 @@
+package io.f1r3fly.replies;
+
+import io.f1r3fly.grcp.DaemonThreadFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import net.dv8tion.jda.api.requests.restaction.MessageAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The single way out to Discord for command replies.
+ * <p>
+ * Once a channel hits its rate limit JDA queues every further request for it, so when many commands finish in one
+ * channel their replies trail further and further behind. Here each channel has at most one request in flight.
+ * Replies that arrive meanwhile, or within {@code replies.window.ms} of the first one, are merged into as few
+ * messages of at most {@link ResultPager#MESSAGE_LIMIT} characters as fit. Results always get the next request
+ * before chatter, and a {@link ProgressMessage} is edited in place instead of posting a new message per stage.
+ */
+@Component
+public class ReplyDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplyDispatcher.class);
+
+    private enum Priority {
+        RESULT,
+        CHATTER
+    }
+
+    private final long windowMs;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory("reply-dispatcher-"));
+    private final Map<String, ChannelQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public ReplyDispatcher(@Value("${replies.window.ms:150}") long windowMs, MeterRegistry registry) {
+        this.windowMs = windowMs;
+        registry.gauge("f1r3bot.replies.pending", pending);
+    }
+
+    /**
+     * Replies, progress posts included, that have not been handed to JDA yet.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Sends a user-facing result: an outcome, an answer or an error.
+     */
+    public void reply(MessageChannel channel, String text) {
+        enqueueText(channel, Priority.RESULT, text);
+    }
+
+    /**
+     * Sends a result with an attached file; it is never merged with other replies.
+     */
+    public void reply(MessageChannel channel, String text, byte[] file, String fileName) {
+        enqueue(channel, Priority.RESULT, new Outgoing(text, null, file, fileName));
+    }
+
+    /**
+     * Sends log-style status that is only worth the rate limit left over by results.
+     */
+    public void chatter(MessageChannel channel, String text) {
+        enqueueText(channel, Priority.CHATTER, text);
+    }
+
+    /**
+     * @return a status message that is posted on its first {@link ProgressMessage#update} and edited afterwards
+     */
+    public ProgressMessage progress(MessageChannel channel) {
+        return new ProgressMessage(channel);
+    }
+
+    /**
+     * A status line that is posted once and then edited in place. Only its latest text is ever sent,
+     * updates that arrive while an earlier one is still waiting replace it.
+     */
+    public final class ProgressMessage {
+        private final MessageChannel channel;
+        private String text;
+        private String sentText;
+        private String messageId;
+        private boolean posting;
+
+        private ProgressMessage(MessageChannel channel) {
+            this.channel = channel;
+        }
+
+        public void update(String text) {
+            boolean post = false;
+            boolean edit = false;
+            synchronized (this) {
+                this.text = text;
+                if (messageId == null) {
+                    post = !posting;
+                    posting = true;
+                } else {
+                    edit = !text.equals(sentText);
+                }
+            }
+            if (post) {
+                enqueue(channel, Priority.CHATTER, new Outgoing(null, this, null, null));
+            } else if (edit) {
+                enqueueEdit(this);
+            }
+        }
+
+        private synchronized String text() {
+            return text;
+        }
+
+        /**
+         * @return whether the text changed while it was being sent
+         */
+        private synchronized boolean sent(String messageId, String sentText) {
+            this.messageId = messageId;
+            this.sentText = sentText;
+            return !sentText.equals(text);
+        }
+
+        private synchronized String messageId() {
+            return messageId;
+        }
+
+        private synchronized void postFailed() {
+            posting = false;
+        }
+    }
+
+    private void enqueueText(MessageChannel channel, Priority priority, String text) {
+        // longer texts would be rejected by Discord, so they are cut into pieces that merge like any other reply
+        for (int start = 0; start < text.length() || start == 0; start += ResultPager.MESSAGE_LIMIT) {
+            enqueue(channel, priority, new Outgoing(text.substring(start, Math.min(text.length(), start + ResultPager.MESSAGE_LIMIT)), null, null, null));
+        }
+    }
+
+    private void enqueue(MessageChannel channel, Priority priority, Outgoing outgoing) {
+        while (true) {
+            ChannelQueue queue = queues.computeIfAbsent(channel.getId(), id -> new ChannelQueue(channel));
+            synchronized (queue) {
+                if (queue.closed) {
+                    continue;
+                }
+                (priority == Priority.RESULT ? queue.results : queue.chatter).add(outgoing);
+                pending.incrementAndGet();
+                schedule(queue, windowMs);
+                return;
+            }
+        }
+    }
+
+    private void enqueueEdit(ProgressMessage progress) {
+        while (true) {
+            ChannelQueue queue = queues.computeIfAbsent(progress.channel.getId(), id -> new ChannelQueue(progress.channel));
+            synchronized (queue) {
+                if (queue.closed) {
+                    continue;
+                }
+                queue.edits.add(progress);
+                schedule(queue, windowMs);
+                return;
+            }
+        }
+    }
+
+    // called with the queue's lock held
+    private void schedule(ChannelQueue queue, long delayMs) {
+        if (!queue.scheduled && !queue.inFlight) {
+            queue.scheduled = true;
+            timer.schedule(() -> flush(queue), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(ChannelQueue queue) {
+        Runnable request;
+        synchronized (queue) {
+            queue.scheduled = false;
+            request = nextRequest(queue);
+            if (request == null) {
+                close(queue);
+                return;
+            }
+            queue.inFlight = true;
+        }
+        try {
+            request.run();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to send a reply to channel {}", queue.channel.getId(), e);
+            completed(queue);
+        }
+    }
+
+    // called with the queue's lock held
+    private Runnable nextRequest(ChannelQueue queue) {
+        Deque<Outgoing> first = !queue.results.isEmpty() ? queue.results : queue.chatter;
+        if (!first.isEmpty()) {
+            Outgoing head = first.poll();
+            pending.decrementAndGet();
+            if (head.progress() != null) {
+                return post(queue, head.progress());
+            }
+            if (head.file() != null) {
+                return () -> send(queue, queue.channel.sendMessage(head.text()).addFile(head.file(), head.fileName()));
+            }
+            StringBuilder merged = new StringBuilder(head.text());
+            appendFitting(merged, first);
+            if (first == queue.results) {
+                appendFitting(merged, queue.chatter);
+            }
+            return () -> send(queue, queue.channel.sendMessage(merged.toString()));
+        }
+
+        Iterator<ProgressMessage> edits = queue.edits.iterator();
+        if (edits.hasNext()) {
+            ProgressMessage progress = edits.next();
+            edits.remove();
+            return edit(queue, progress);
+        }
+        return null;
+    }
+
+    // merging stops at the first reply that does not fit or has to stay on its own, so replies keep their order
+    private void appendFitting(StringBuilder merged, Deque<Outgoing> replies) {
+        while (!replies.isEmpty()) {
+            Outgoing next = replies.peek();
+            if (next.standalone() || merged.length() + 1 + next.text().length() > ResultPager.MESSAGE_LIMIT) {
+                return;
+            }
+            merged.append('\n').append(next.text());
+            replies.poll();
+            pending.decrementAndGet();
+        }
+    }
+
+    private void send(ChannelQueue queue, MessageAction action) {
+        action.queue(message -> completed(queue), failure -> {
+            LOGGER.warn("Failed to send a reply to channel {}", queue.channel.getId(), failure);
+            completed(queue);
+        });
+    }
+
+    private Runnable post(ChannelQueue queue, ProgressMessage progress) {
+        String text = progress.text();
+        Consumer<Throwable> failed = failure -> {
+            LOGGER.warn("Failed to post a progress message to channel {}", queue.channel.getId(), failure);
+            progress.postFailed();
+            completed(queue);
+        };
+        return () -> {
+            // JDA throws some failures (e.g. a missing permission) right away instead of calling back
+            try {
+                queue.channel.sendMessage(text).queue(message -> {
+                    if (progress.sent(message.getId(), text)) {
+                        enqueueEdit(progress);
+                    }
+                    completed(queue);
+                }, failed);
+            } catch (RuntimeException e) {
+                failed.accept(e);
+            }
+        };
+    }
+
+    private Runnable edit(ChannelQueue queue, ProgressMessage progress) {
+        String text = progress.text();
+        String messageId = progress.messageId();
+        return () -> queue.channel.editMessageById(messageId, text).queue(message -> {
+            if (progress.sent(messageId, text)) {
+                enqueueEdit(progress);
+            }
+            completed(queue);
+        }, failure -> {
+            LOGGER.warn("Failed to edit progress message {}", messageId, failure);
+            completed(queue);
+        });
+    }
+
+    // JDA calls back once the request went through its rate limiter, so the next request only starts then
+    private void completed(ChannelQueue queue) {
+        synchronized (queue) {
+            queue.inFlight = false;
+            if (queue.results.isEmpty() && queue.chatter.isEmpty() && queue.edits.isEmpty()) {
+                close(queue);
+            } else {
+                schedule(queue, 0);
+            }
+        }
+    }
+
+    // called with the queue's lock held; a closed queue is never reused, enqueue creates a new one
+    private void close(ChannelQueue queue) {
+        queue.closed = true;
+        queues.remove(queue.channel.getId(), queue);
+    }
+
+    private static final class ChannelQueue {
+        private final MessageChannel channel;
+        private final Deque<Outgoing> results = new ArrayDeque<>();
+        private final Deque<Outgoing> chatter = new ArrayDeque<>();
+        private final Set<ProgressMessage> edits = new LinkedHashSet<>();
+        private boolean scheduled;
+        private boolean inFlight;
+        private boolean closed;
+
+        private ChannelQueue(MessageChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Either plain text, which can be merged, or a progress post or a file, which need a message of their own.
+     */
+    private record Outgoing(String text, ProgressMessage progress, byte[] file, String fileName) {
+        boolean standalone() {
+            return progress != null || file != null;
+        }
+    }
+}
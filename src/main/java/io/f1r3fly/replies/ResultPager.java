@@ -0,0 +1,117 @@
+package io.f1r3fly.replies;
+
+import io.f1r3fly.grcp.EvalResult;
+import net.dv8tion.jda.api.entities.MessageChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Delivers results that may not fit into one Discord message.
+ * The first page is sent right away and the rest is kept per channel for {@code !more};
+ * results above {@code results.attachment.threshold.chars} are sent as a gzipped text file instead.
+ * Pages not asked for within {@code results.pending.ttl.ms} are dropped on the next delivery or {@code !more}.
+ */
+@Component
+public class ResultPager {
+    public static final int MESSAGE_LIMIT = 2000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultPager.class);
+    private static final String MORE_FOOTER = "\n*... type `!more` for the next page*";
+    private static final int PAGE_SIZE = MESSAGE_LIMIT - MORE_FOOTER.length();
+
+    private final ReplyDispatcher replies;
+    private final long attachmentThreshold;
+    private final long pendingTtlNanos;
+    private final Map<String, PendingPages> pending = new ConcurrentHashMap<>();
+
+    public ResultPager(ReplyDispatcher replies,
+                       @Value("${results.attachment.threshold.chars:20000}") long attachmentThreshold,
+                       @Value("${results.pending.ttl.ms:900000}") long pendingTtlMs) {
+        this.replies = replies;
+        this.attachmentThreshold = attachmentThreshold;
+        this.pendingTtlNanos = pendingTtlMs * 1_000_000L;
+    }
+
+    public void deliver(MessageChannel channel, String title, EvalResult result) {
+        // channels that never ask for !more again would otherwise keep their pages forever
+        evictExpired();
+        long length = ResultPages.totalLength(title, result);
+        if (length > attachmentThreshold) {
+            sendCompressed(channel, title, result, length);
+            return;
+        }
+
+        ResultPages pages = new ResultPages(title, result, PAGE_SIZE);
+        String first = pages.next();
+        if (pages.hasNext()) {
+            pending.put(channel.getId(), new PendingPages(pages, System.nanoTime()));
+            replies.reply(channel, first + MORE_FOOTER);
+        } else {
+            pending.remove(channel.getId());
+            replies.reply(channel, first);
+        }
+    }
+
+    /**
+     * Sends the next page of the last paged result in this channel.
+     */
+    public void more(MessageChannel channel) {
+        evictExpired();
+        PendingPages pages = pending.get(channel.getId());
+        if (pages == null) {
+            replies.reply(channel, "There is nothing more to show.");
+            return;
+        }
+
+        String page;
+        boolean last;
+        synchronized (pages) {
+            if (!pages.pages.hasNext()) {
+                pending.remove(channel.getId(), pages);
+                replies.reply(channel, "There is nothing more to show.");
+                return;
+            }
+            page = pages.pages.next();
+            last = !pages.pages.hasNext();
+        }
+        if (last) {
+            pending.remove(channel.getId(), pages);
+        }
+        replies.reply(channel, last ? page : page + MORE_FOOTER);
+    }
+
+    private void sendCompressed(MessageChannel channel, String title, EvalResult result, long length) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            ResultPages pages = new ResultPages(title, result, 64 * 1024);
+            while (pages.hasNext()) {
+                writer.write(pages.next());
+            }
+        } catch (IOException e) {
+            LOGGER.error("Failed to compress result", e);
+            replies.reply(channel, "Failed to prepare the result: " + e.getMessage());
+            return;
+        }
+        replies.reply(channel, "The result is %d characters long, so it is attached as a file.".formatted(length),
+                bytes.toByteArray(), "result.txt.gz");
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        pending.values().removeIf(pages -> now - pages.createdAt > pendingTtlNanos);
+    }
+
+    private record PendingPages(ResultPages pages, long createdAt) {
+    }
+}
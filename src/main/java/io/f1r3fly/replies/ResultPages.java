@@ -0,0 +1,95 @@
+package io.f1r3fly.replies;
+
+import io.f1r3fly.grcp.EvalResult;
+import io.f1r3fly.grcp.StorageDiff;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily cuts a result into pages of at most {@code pageSize} characters.
+ * Pages break between storage entries; only an entry that does not fit on a page of its own is split.
+ * Nothing beyond the current page is ever concatenated.
+ */
+public class ResultPages implements Iterator<String> {
+    private static final String ENTRY_SEPARATOR = " | ";
+
+    private final String title;
+    private final String header;
+    private final List<String> entries;
+    private final int pageSize;
+
+    private int nextEntry;
+    private String pendingSegment;
+    private int pendingOffset;
+    private boolean headerEmitted;
+
+    public ResultPages(String title, EvalResult result, int pageSize) {
+        this.title = title;
+        this.header = result.header();
+        this.entries = result.storageEntries();
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Length of the whole result, without building it.
+     */
+    public static long totalLength(String title, EvalResult result) {
+        long length = title.length() + result.header().length();
+        if (!result.storageEntries().isEmpty()) {
+            length += StorageDiff.STORAGE_MARKER.length() + 2;
+            length += (long) ENTRY_SEPARATOR.length() * (result.storageEntries().size() - 1);
+            for (String entry : result.storageEntries()) {
+                length += entry.length();
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !headerEmitted || pendingSegment != null || nextEntry < entries.size();
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        StringBuilder page = new StringBuilder(pageSize);
+        while (page.length() < pageSize) {
+            if (pendingSegment == null && !advance()) {
+                break;
+            }
+            int remaining = pendingSegment.length() - pendingOffset;
+            int room = pageSize - page.length();
+            if (remaining <= room) {
+                page.append(pendingSegment, pendingOffset, pendingSegment.length());
+                pendingSegment = null;
+            } else if (page.length() > 0 && remaining <= pageSize) {
+                // fits on the next page as a whole, so do not split it
+                break;
+            } else {
+                page.append(pendingSegment, pendingOffset, pendingOffset + room);
+                pendingOffset += room;
+            }
+        }
+        return page.toString();
+    }
+
+    private boolean advance() {
+        pendingOffset = 0;
+        if (!headerEmitted) {
+            headerEmitted = true;
+            pendingSegment = title + header;
+        } else if (nextEntry < entries.size()) {
+            String entry = entries.get(nextEntry);
+            pendingSegment = (nextEntry == 0 ? "\n" + StorageDiff.STORAGE_MARKER + "\n" : ENTRY_SEPARATOR) + entry;
+            nextEntry++;
+        } else {
+            return false;
+        }
+        return true;
+    }
+}